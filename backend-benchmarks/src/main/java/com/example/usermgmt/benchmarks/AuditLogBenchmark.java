@@ -0,0 +1,76 @@
+package com.example.usermgmt.benchmarks;
+
+import com.example.usermgmt.controller.LogController;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 审计日志接口：分页查询、按条件过滤和流式导出
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AuditLogBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private BenchmarkContext context;
+    private LogController controller;
+    private String day;
+    private String nextDay;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        context.populateAuditLogs(rows);
+        controller = context.bean(LogController.class);
+        LocalDate date = LocalDate.now().minusDays(10);
+        day = date.toString();
+        nextDay = date.plusDays(1).toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public Object firstPage() {
+        return controller.getAuditLogs(0, 10, null, null, null, null, null, null,
+            BenchmarkContext.webRequest()).getBody();
+    }
+
+    @Benchmark
+    public Object filterByAction() {
+        return controller.getAuditLogs(0, 10, null, null, null, "DELETE_USER", null, null,
+            BenchmarkContext.webRequest()).getBody();
+    }
+
+    @Benchmark
+    public Object dateRange() {
+        return controller.getAuditLogs(0, 10, null, null, null, null, day, day,
+            BenchmarkContext.webRequest()).getBody();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void exportOneDayCsv() throws IOException {
+        controller.exportAuditLogs(null, null, null, day, nextDay, "csv", null).getBody()
+            .writeTo(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void exportAllNdjsonGzip() throws IOException {
+        controller.exportAuditLogs(null, null, null, null, null, "ndjson", "gzip").getBody()
+            .writeTo(OutputStream.nullOutputStream());
+    }
+}
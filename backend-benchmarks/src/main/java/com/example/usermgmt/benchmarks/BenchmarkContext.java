@@ -0,0 +1,96 @@
+package com.example.usermgmt.benchmarks;
+
+import com.example.usermgmt.UserManagementApplication;
+import com.example.usermgmt.service.AuditLogStore;
+import com.example.usermgmt.service.UserStore;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基准测试用的应用上下文：内嵌 H2 数据库、临时审计日志目录、不启动 Web 服务器，
+ * 直接从容器中取出控制器和服务调用
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    static final String[] ROLES = {"ADMIN", "MANAGER", "USER"};
+    static final String[] STATUSES = {"ACTIVE", "INACTIVE", "LOCKED"};
+    static final String[] ACTIONS = {"LOGIN", "LOGOUT", "CREATE_USER", "UPDATE_USER", "DELETE_USER", "VIEW_USERS"};
+
+    private final Path dataDir;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(Path dataDir, ConfigurableApplicationContext context) {
+        this.dataDir = dataDir;
+        this.context = context;
+    }
+
+    static BenchmarkContext start() throws IOException {
+        Path dataDir = Files.createTempDirectory("usermgmt-bench");
+        SpringApplication application = new SpringApplication(UserManagementApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setLogStartupInfo(false);
+        ConfigurableApplicationContext context = application.run(
+            "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.show-sql=false",
+            "--spring.sql.init.mode=never",
+            "--logging.level.root=WARN",
+            "--audit.store.dir=" + dataDir.resolve("audit"));
+        return new BenchmarkContext(dataDir, context);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * 补足到 count 个用户，角色和状态按序轮换
+     */
+    void populateUsers(int count) {
+        UserStore userStore = bean(UserStore.class);
+        for (int i = userStore.size(); i < count; i++) {
+            String username = "user" + i;
+            userStore.create(username, "First" + i, "Last" + i, ROLES[i % ROLES.length], username + "@example.com");
+        }
+    }
+
+    /**
+     * 追加 count 条审计日志，时间均匀分布在最近 30 天内
+     */
+    void populateAuditLogs(int count) {
+        AuditLogStore store = bean(AuditLogStore.class);
+        long end = System.currentTimeMillis();
+        long start = end - Duration.ofDays(30).toMillis();
+        long step = Math.max(1, (end - start) / Math.max(1, count));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            long userId = 1 + random.nextInt(1000);
+            store.append(start + i * step, userId, "user" + userId, ACTIONS[i % ACTIONS.length],
+                "benchmark entry " + i, "192.168.1." + (i % 255), "Mozilla/5.0 (JMH)");
+        }
+    }
+
+    static WebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest());
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(dataDir);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.usermgmt.benchmarks;
+
+import com.example.usermgmt.dto.DashboardStats;
+import com.example.usermgmt.service.DashboardService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 仪表板统计，用户数和审计日志条数同为 rows
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DashboardBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private BenchmarkContext context;
+    private DashboardService dashboardService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        context.populateUsers(rows);
+        context.populateAuditLogs(rows);
+        dashboardService = context.bean(DashboardService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public DashboardStats weeklyStats() {
+        return dashboardService.getDashboardStats(7);
+    }
+
+    @Benchmark
+    public DashboardStats yearlyStats() {
+        return dashboardService.getDashboardStats(365);
+    }
+}
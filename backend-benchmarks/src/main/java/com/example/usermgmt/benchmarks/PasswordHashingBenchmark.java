@@ -0,0 +1,40 @@
+package com.example.usermgmt.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt 哈希与校验在不同成本下的耗时，用于确定 password.bcrypt.target-ms
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    @Param({"10", "12"})
+    public int cost;
+
+    private BCryptPasswordEncoder encoder;
+    private String encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(cost);
+        encoded = encoder.encode("admin123");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("admin123");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("admin123", encoded);
+    }
+}
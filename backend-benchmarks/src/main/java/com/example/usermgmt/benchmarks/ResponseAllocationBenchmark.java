@@ -0,0 +1,80 @@
+package com.example.usermgmt.benchmarks;
+
+import com.example.usermgmt.controller.LogController;
+import com.example.usermgmt.controller.UserController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次完整请求的开销：控制器构造响应体，再由 Jackson 写到输出流（与 Spring MVC 写响应的方式一致）。
+ * 配合 -prof gc 查看每次请求的分配量（gc.alloc.rate.norm）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ResponseAllocationBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private BenchmarkContext context;
+    private ObjectMapper objectMapper;
+    private UserController userController;
+    private LogController logController;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        context.populateUsers(rows);
+        context.populateAuditLogs(rows);
+        objectMapper = context.bean(ObjectMapper.class);
+        userController = context.bean(UserController.class);
+        logController = context.bean(LogController.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public void usersPage() throws IOException {
+        write(userController.getAllUsers(0, 20, null, null, null, null, null,
+            BenchmarkContext.webRequest()).getBody());
+    }
+
+    @Benchmark
+    public void usersFilteredPage() throws IOException {
+        write(userController.getAllUsers(0, 20, null, null, null, "MANAGER", "ACTIVE",
+            BenchmarkContext.webRequest()).getBody());
+    }
+
+    @Benchmark
+    public void usersCursorPage() throws IOException {
+        write(userController.getAllUsers(0, 20, "", null, null, null, null,
+            BenchmarkContext.webRequest()).getBody());
+    }
+
+    @Benchmark
+    public void auditLogsPage() throws IOException {
+        write(logController.getAuditLogs(0, 20, null, null, null, null, null, null,
+            BenchmarkContext.webRequest()).getBody());
+    }
+
+    @Benchmark
+    public void auditLogsCursorPage() throws IOException {
+        write(logController.getAuditLogs(0, 20, "", null, null, null, null, null,
+            BenchmarkContext.webRequest()).getBody());
+    }
+
+    private void write(Object body) throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), body);
+    }
+}
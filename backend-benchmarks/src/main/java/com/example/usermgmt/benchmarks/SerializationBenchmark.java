@@ -0,0 +1,88 @@
+package com.example.usermgmt.benchmarks;
+
+import com.example.usermgmt.controller.UserController;
+import com.example.usermgmt.dto.DashboardStats;
+import com.example.usermgmt.dto.UserDTO;
+import com.example.usermgmt.entity.User;
+import com.example.usermgmt.service.DashboardService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实体到 DTO 的映射，以及分页和仪表板响应的 Jackson 序列化（使用应用容器中配置好的 ObjectMapper）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int users;
+
+    private BenchmarkContext context;
+    private ObjectMapper objectMapper;
+    private List<User> entities;
+    private Object userPage;
+    private DashboardStats dashboardStats;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        context.populateUsers(Math.max(users, 100));
+        objectMapper = context.bean(ObjectMapper.class);
+        userPage = context.bean(UserController.class)
+            .getAllUsers(0, 100, null, null, null, null, null, BenchmarkContext.webRequest()).getBody();
+        dashboardStats = context.bean(DashboardService.class).getDashboardStats(30);
+
+        entities = new ArrayList<>(users);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setPassword("$2a$10$placeholder");
+            user.setRole(User.UserRole.values()[i % User.UserRole.values().length]);
+            user.setCreatedAt(now);
+            user.setUpdatedAt(now);
+            entities.add(user);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<UserDTO> mapEntitiesToDto() {
+        List<UserDTO> dtos = new ArrayList<>(entities.size());
+        for (User user : entities) {
+            dtos.add(new UserDTO(user));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public byte[] serializeUserPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userPage);
+    }
+
+    @Benchmark
+    public byte[] serializeDashboardStats() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dashboardStats);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.usermgmt.benchmarks;
+
+import com.example.usermgmt.controller.UserController;
+import com.example.usermgmt.dto.PageResponse;
+import com.example.usermgmt.service.UserEntry;
+import com.example.usermgmt.service.UserStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户列表接口：分页、过滤、搜索和游标分页
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class UserQueryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int users;
+
+    private BenchmarkContext context;
+    private UserController controller;
+    private int middlePage;
+    private String middleCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        context.populateUsers(users);
+        controller = context.bean(UserController.class);
+        middlePage = users / 20;
+        // 取中间页前一页的最后一行作为游标，与页码模式的 middlePage 对应同一位置
+        @SuppressWarnings("unchecked")
+        PageResponse<UserEntry> previous = (PageResponse<UserEntry>) controller.getAllUsers(middlePage - 1, 10,
+            null, null, null, null, null, BenchmarkContext.webRequest()).getBody();
+        List<UserEntry> content = previous.content();
+        middleCursor = UserStore.cursorOf(content.get(content.size() - 1)).encode();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public Object firstPage() {
+        return controller.getAllUsers(0, 10, null, null, null, null, null, BenchmarkContext.webRequest()).getBody();
+    }
+
+    @Benchmark
+    public Object middlePage() {
+        return controller.getAllUsers(middlePage, 10, null, null, null, null, null,
+            BenchmarkContext.webRequest()).getBody();
+    }
+
+    @Benchmark
+    public Object middlePageByCursor() {
+        return controller.getAllUsers(0, 10, middleCursor, null, null, null, null,
+            BenchmarkContext.webRequest()).getBody();
+    }
+
+    @Benchmark
+    public Object filterByRoleAndStatus() {
+        return controller.getAllUsers(0, 10, null, null, null, "MANAGER", "ACTIVE",
+            BenchmarkContext.webRequest()).getBody();
+    }
+
+    @Benchmark
+    public Object search() {
+        return controller.getAllUsers(0, 10, null, "user123", null, null, null,
+            BenchmarkContext.webRequest()).getBody();
+    }
+}
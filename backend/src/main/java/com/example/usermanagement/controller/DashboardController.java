@@ -1,23 +0,0 @@
-package com.example.usermanagement.controller;
-
-import com.example.usermanagement.dto.DashboardStatsDTO;
-import com.example.usermanagement.service.DashboardService;
-import lombok.RequiredArgsConstructor;
-import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-
-@RestController
-@RequestMapping("/dashboard")
-@RequiredArgsConstructor
-public class DashboardController {
-    private final DashboardService dashboardService;
-
-    @GetMapping("/stats")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<DashboardStatsDTO> getDashboardStats() {
-        return ResponseEntity.ok(dashboardService.getDashboardStats());
-    }
-} 
\ No newline at end of file
@@ -2,14 +2,20 @@ package com.example.usermgmt;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
 @EnableJpaAuditing
 public class UserManagementApplication {
 
+    private static final int STARTUP_EVENT_CAPACITY = 20_000;
+
     public static void main(String[] args) {
-        SpringApplication.run(UserManagementApplication.class, args);
+        SpringApplication application = new SpringApplication(UserManagementApplication.class);
+        // 记录启动各阶段和每个 bean 的初始化耗时，就绪后由 StartupReport 汇总
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_EVENT_CAPACITY));
+        application.run(args);
         System.out.println("🚀 Spring Boot 用户管理系统启动成功！");
         System.out.println("📱 API地址: http://localhost:8080/api");
         System.out.println("📋 Swagger文档: http://localhost:8080/api/swagger-ui.html");
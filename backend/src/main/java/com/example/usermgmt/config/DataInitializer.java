@@ -3,6 +3,7 @@ package com.example.usermgmt.config;
 import com.example.usermgmt.entity.User;
 import com.example.usermgmt.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,18 +15,37 @@ public class DataInitializer {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    /**
+     * 为 true 时在后台线程中检查默认管理员，不占用启动时间
+     */
+    @Value("${app.data-init.deferred:false}")
+    private boolean deferred;
+
     @Bean
     public CommandLineRunner initData() {
         return args -> {
-            // 检查是否已存在管理员用户
-            if (userRepository.findByUsername("admin").isEmpty()) {
-                // 创建并保存默认管理员用户
-                User admin = User.createDefaultAdmin();
-                userRepository.save(admin);
-                System.out.println("✅ 默认管理员用户创建成功！");
-                System.out.println("👤 用户名: admin");
-                System.out.println("🔑 密码: admin");
+            if (deferred) {
+                Thread thread = new Thread(this::createDefaultAdmin, "data-initializer");
+                thread.setDaemon(true);
+                thread.start();
+            } else {
+                createDefaultAdmin();
             }
         };
     }
-} 
\ No newline at end of file
+
+    private void createDefaultAdmin() {
+        // 检查是否已存在管理员用户
+        if (userRepository.findByUsername("admin").isEmpty()) {
+            // 创建并保存默认管理员用户
+            User admin = User.createDefaultAdmin(passwordEncoder.encode("admin"));
+            userRepository.save(admin);
+            System.out.println("✅ 默认管理员用户创建成功！");
+            System.out.println("👤 用户名: admin");
+            System.out.println("🔑 密码: admin");
+        }
+    }
+}
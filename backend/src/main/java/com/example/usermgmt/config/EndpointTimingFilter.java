@@ -0,0 +1,73 @@
+package com.example.usermgmt.config;
+
+import com.example.usermgmt.service.EndpointMetrics;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * 记录每个请求从进入过滤器链到响应完成的耗时，按处理方法归类；
+ * 异步请求（CompletableFuture 返回值）在异步完成时才记录。
+ * SSE 等事件流响应不记录：它的耗时是连接持续时间，混入会拉高接口的延迟分位数
+ */
+@RequiredArgsConstructor
+public class EndpointTimingFilter extends OncePerRequestFilter {
+
+    private final EndpointMetrics endpointMetrics;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, System.nanoTime() - start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, response, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, long nanos) {
+        if (isEventStream(response)) {
+            return;
+        }
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            endpointMetrics.record(handler, request, nanos);
+        }
+    }
+
+    private static boolean isEventStream(HttpServletResponse response) {
+        String contentType = response.getContentType();
+        return contentType != null && contentType.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+}
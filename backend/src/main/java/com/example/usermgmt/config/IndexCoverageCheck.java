@@ -0,0 +1,180 @@
+package com.example.usermgmt.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 仓库查询的索引覆盖检查
+ *
+ * 启动完成后遍历所有 Spring Data 仓库的查询方法，取出条件列（派生查询按方法名解析，@Query 取 WHERE 子句，
+ * 没有 WHERE 时取 ORDER BY），与数据库中各索引（含主键）的首列比对；没有任何条件列是索引首列的方法打印警告。
+ * 只判断索引是否存在，不分析执行计划，前置通配的 LIKE 等用不上索引的写法不在检查范围内。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "schema.index-check.enabled", havingValue = "true", matchIfMissing = true)
+public class IndexCoverageCheck {
+
+    private static final Pattern FROM_ALIAS = Pattern.compile("(?i)\\b(?:FROM|UPDATE)\\s+\\w+\\s+(?:AS\\s+)?(\\w+)");
+    private static final Pattern WHERE = Pattern.compile("(?i)\\bWHERE\\b(.*?)(?:\\bGROUP\\s+BY\\b|\\bORDER\\s+BY\\b|$)");
+    private static final Pattern ORDER_BY = Pattern.compile("(?i)\\bORDER\\s+BY\\b(.*)$");
+
+    private final ApplicationContext applicationContext;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+    private final boolean failOnUncovered;
+
+    public IndexCoverageCheck(ApplicationContext applicationContext, EntityManagerFactory entityManagerFactory,
+                              DataSource dataSource,
+                              @Value("${schema.index-check.fail-on-uncovered:false}") boolean failOnUncovered) {
+        this.applicationContext = applicationContext;
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+        this.failOnUncovered = failOnUncovered;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() throws SQLException {
+        List<String> uncovered = findUncovered();
+        if (uncovered.isEmpty()) {
+            log.info("索引覆盖检查通过");
+            return;
+        }
+        uncovered.forEach(problem -> log.warn("查询条件没有可用索引: {}", problem));
+        if (failOnUncovered) {
+            throw new IllegalStateException("存在 " + uncovered.size() + " 个没有索引覆盖的查询方法");
+        }
+    }
+
+    /**
+     * 没有索引覆盖的查询方法，形如 "UserRepository.findByFoo [foo_column]"
+     */
+    public List<String> findUncovered() throws SQLException {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Repositories repositories = new Repositories(applicationContext);
+        Map<String, Set<String>> indexedColumnsByTable = new HashMap<>();
+        List<String> uncovered = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (Class<?> domainType : repositories) {
+                RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+                if (!(sessionFactory.getMappingMetamodel().findEntityDescriptor(domainType)
+                        instanceof AbstractEntityPersister persister)) {
+                    continue;
+                }
+                Set<String> indexed = indexedColumnsByTable.computeIfAbsent(persister.getTableName(),
+                    table -> leadingIndexColumns(connection, metaData, table));
+                for (Method method : information.getQueryMethods()) {
+                    Set<String> columns = columns(persister, predicateProperties(method, domainType));
+                    if (!columns.isEmpty() && Collections.disjoint(columns, indexed)) {
+                        uncovered.add(information.getRepositoryInterface().getSimpleName() + "." + method.getName()
+                            + " " + columns);
+                    }
+                }
+            }
+        }
+        return uncovered;
+    }
+
+    private static Set<String> predicateProperties(Method method, Class<?> domainType) {
+        Query query = method.getAnnotation(Query.class);
+        if (query == null) {
+            Set<String> properties = new LinkedHashSet<>();
+            try {
+                for (Part part : new PartTree(method.getName(), domainType).getParts()) {
+                    properties.add(part.getProperty().getSegment());
+                }
+            } catch (RuntimeException e) {
+                // 不是派生查询（例如命名查询），跳过
+            }
+            return properties;
+        }
+        String jpql = query.value().replaceAll("\\s+", " ");
+        Matcher alias = FROM_ALIAS.matcher(jpql);
+        if (!alias.find()) {
+            return Set.of();
+        }
+        Matcher where = WHERE.matcher(jpql);
+        String clause = where.find() ? where.group(1) : null;
+        if (clause == null) {
+            Matcher orderBy = ORDER_BY.matcher(jpql);
+            clause = orderBy.find() ? orderBy.group(1) : "";
+        }
+        Set<String> properties = new LinkedHashSet<>();
+        Matcher path = Pattern.compile("\\b" + Pattern.quote(alias.group(1)) + "\\.(\\w+)").matcher(clause);
+        while (path.find()) {
+            properties.add(path.group(1));
+        }
+        return properties;
+    }
+
+    private static Set<String> columns(AbstractEntityPersister persister, Set<String> properties) {
+        Set<String> columns = new LinkedHashSet<>();
+        for (String property : properties) {
+            String[] names = property.equals(persister.getIdentifierPropertyName())
+                ? persister.getIdentifierColumnNames()
+                : persister.getPropertyColumnNames(property);
+            for (String name : names) {
+                columns.add(name.toLowerCase(Locale.ROOT));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * 表上各索引（含主键）的首列；H2 的表名为大写，按原样查不到时再按大写查一次
+     */
+    private static Set<String> leadingIndexColumns(Connection connection, DatabaseMetaData metaData, String table) {
+        Set<String> columns = new HashSet<>();
+        try {
+            String catalog = connection.getCatalog();
+            String schema = connection.getSchema();
+            for (String name : List.of(table, table.toUpperCase(Locale.ROOT))) {
+                try (ResultSet rs = metaData.getIndexInfo(catalog, schema, name, false, true)) {
+                    while (rs.next()) {
+                        if (rs.getShort("ORDINAL_POSITION") == 1 && rs.getString("COLUMN_NAME") != null) {
+                            columns.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+                try (ResultSet rs = metaData.getPrimaryKeys(catalog, schema, name)) {
+                    while (rs.next()) {
+                        if (rs.getShort("KEY_SEQ") == 1) {
+                            columns.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+                if (!columns.isEmpty()) {
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("读取表 " + table + " 的索引信息失败", e);
+        }
+        return columns;
+    }
+}
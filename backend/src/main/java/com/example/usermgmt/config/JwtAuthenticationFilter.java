@@ -0,0 +1,44 @@
+package com.example.usermgmt.config;
+
+import com.example.usermgmt.service.JwtService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 从 Authorization 请求头解析 Bearer 令牌并写入安全上下文，
+ * 令牌无效时不做处理，由后续的授权规则决定是否拒绝
+ */
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            jwtService.verify(header.substring(BEARER_PREFIX.length())).ifPresent(token -> {
+                List<SimpleGrantedAuthority> authorities = token.role() == null
+                    ? List.of()
+                    : List.of(new SimpleGrantedAuthority("ROLE_" + token.role()));
+                SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(token.username(), null, authorities));
+            });
+        }
+        chain.doFilter(request, response);
+    }
+}
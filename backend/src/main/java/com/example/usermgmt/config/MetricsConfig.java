@@ -0,0 +1,42 @@
+package com.example.usermgmt.config;
+
+import com.example.usermgmt.service.EndpointMetrics;
+import com.example.usermgmt.service.HikariMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * 计时过滤器排在最前，统计的耗时包含安全过滤器链
+     */
+    @Bean
+    public FilterRegistrationBean<EndpointTimingFilter> endpointTimingFilter(EndpointMetrics endpointMetrics) {
+        FilterRegistrationBean<EndpointTimingFilter> registration =
+            new FilterRegistrationBean<>(new EndpointTimingFilter(endpointMetrics));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * 连接池启动前挂上指标回调；连接池在第一次获取连接时才启动
+     */
+    @Bean
+    public static BeanPostProcessor hikariMetricsPostProcessor(ObjectProvider<HikariMetrics> hikariMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.setMetricsTrackerFactory(hikariMetrics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.usermgmt.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离数据源
+ *
+ * 只读事务（{@code @Transactional(readOnly = true)}）走从库，其余一律走主库。
+ * 当前用户提交写事务后的 sticky-ms 内，他的只读事务仍走主库，避免因复制延迟读不到自己刚写的数据；
+ * 从库取连接失败时回退到主库，并在 retry-ms 内不再尝试从库。
+ * 需要包在 LazyConnectionDataSourceProxy 里使用，事务的只读标记在第一次执行语句时才可见。
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    // 清理过期写入记录的阈值，避免每次取连接都遍历
+    private static final int PURGE_THRESHOLD = 1024;
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long stickyNanos;
+    private final long retryNanos;
+    private final Map<String, Long> recentWriters = new ConcurrentHashMap<>();
+    private volatile long replicaDownUntil;
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder stickyReads = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, long stickyMillis, long retryMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMillis);
+        this.retryNanos = TimeUnit.MILLISECONDS.toNanos(retryMillis);
+        this.replicaDownUntil = System.nanoTime();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    /**
+     * 按账号取连接时路由规则不变，账号原样传给选中的数据源
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(target -> target.getConnection(username, password));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("primaryConnections", primaryConnections.sum());
+        stats.put("replicaConnections", replicaConnections.sum());
+        stats.put("stickyReads", stickyReads.sum());
+        stats.put("fallbacks", fallbacks.sum());
+        stats.put("replicaAvailable", System.nanoTime() - replicaDownUntil >= 0);
+        return stats;
+    }
+
+    private Connection route(ConnectionOpener opener) throws SQLException {
+        if (useReplica()) {
+            try {
+                Connection connection = opener.open(replica);
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                replicaDownUntil = System.nanoTime() + retryNanos;
+                fallbacks.increment();
+                log.warn("从库不可用，{} 毫秒内只读事务改走主库: {}", TimeUnit.NANOSECONDS.toMillis(retryNanos), e.getMessage());
+            }
+        }
+        trackWrite();
+        Connection connection = opener.open(primary);
+        primaryConnections.increment();
+        return connection;
+    }
+
+    private boolean useReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        if (System.nanoTime() - replicaDownUntil < 0) {
+            return false;
+        }
+        String user = currentUser();
+        Long writtenUntil = user == null ? null : recentWriters.get(user);
+        if (writtenUntil != null && System.nanoTime() - writtenUntil < 0) {
+            stickyReads.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 读写事务提交后记下当前用户，同一事务只登记一次
+     */
+    private void trackWrite() {
+        String user = currentUser();
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReadWriteRoutingDataSource.this);
+                if (status == STATUS_COMMITTED) {
+                    markWritten(user);
+                }
+            }
+        });
+    }
+
+    private void markWritten(String user) {
+        long now = System.nanoTime();
+        if (recentWriters.size() >= PURGE_THRESHOLD) {
+            recentWriters.values().removeIf(until -> now - until >= 0);
+        }
+        recentWriters.put(user, now + stickyNanos);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken
+            ? null : authentication.getName();
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open(DataSource target) throws SQLException;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.usermgmt.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * 配置了 spring.datasource.replica.url 时启用读写分离：主库沿用 spring.datasource.*，
+ * 从库使用 spring.datasource.replica.*，连接池参数分别在 .hikari 下配置。
+ * 未配置从库时不加载，仍由 Spring Boot 自动配置单个数据源。
+ * 从库表结构通常由复制同步；配置了 spring.datasource.replica.flyway.locations 时（本地调试等没有复制的场景），
+ * 启动时对从库执行一次这些位置的迁移。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${spring.datasource.replica.url}") String url,
+            @Value("${spring.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${spring.datasource.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${spring.datasource.replica.driver-class-name:${spring.datasource.driver-class-name:}}") String driverClassName) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        if (!driverClassName.isEmpty()) {
+            dataSource.setDriverClassName(driverClassName);
+        }
+        // 从库启动时不可用也不阻止应用启动，取连接失败时回退主库
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${spring.datasource.replica.sticky-ms:2000}") long stickyMillis,
+            @Value("${spring.datasource.replica.retry-ms:5000}") long retryMillis,
+            @Value("${spring.datasource.replica.flyway.locations:}") String[] flywayLocations) {
+        if (flywayLocations.length > 0) {
+            Flyway.configure().dataSource(replica).locations(flywayLocations).load().migrate();
+        }
+        return new ReadWriteRoutingDataSource(primary, replica, stickyMillis, retryMillis);
+    }
+
+    /**
+     * JPA 和 JdbcTemplate 使用的数据源；延迟到第一次执行语句时才取真实连接，此时事务的只读标记已经设置
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -1,7 +1,14 @@
 package com.example.usermgmt.config;
 
+import com.example.usermgmt.service.JwtService;
+import jakarta.servlet.DispatcherType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -9,16 +16,22 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 
+@Slf4j
 @Configuration
 @EnableWebSecurity
+@RequiredArgsConstructor
 public class SecurityConfig {
 
+    private final JwtService jwtService;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -26,8 +39,18 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                .anyRequest().permitAll()  // 临时允许所有请求通过
+                // 异步接口的二次分派沿用首次分派时已完成的认证
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                .requestMatchers("/", "/auth/login", "/auth/logout", "/auth/check").permitAll()
+                .requestMatchers("/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                // Prometheus 抓取不携带令牌
+                .requestMatchers(HttpMethod.GET, "/metrics").permitAll()
+                .anyRequest().authenticated()
             )
+            // 无状态认证：每个请求由 JWT 过滤器根据 Bearer 令牌建立身份
+            .addFilterBefore(new JwtAuthenticationFilter(jwtService), UsernamePasswordAuthenticationFilter.class)
+            .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             .httpBasic(AbstractHttpConfigurer::disable);
         
         return http.build();
@@ -47,8 +70,25 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * 按当前机器校准 BCrypt 成本：从最低成本开始测一次耗时，每加 1 耗时翻倍，
+     * 取不超过目标耗时的最大成本，且不低于 min-cost
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.bcrypt.target-ms:250}") long targetMillis,
+                                           @Value("${password.bcrypt.min-cost:10}") int minCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode("calibration");  // 预热
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        double elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000.0, 0.1);
+
+        int cost = minCost;
+        while (cost < 31 && elapsedMillis * 2 <= targetMillis) {
+            cost++;
+            elapsedMillis *= 2;
+        }
+        log.info("BCrypt 成本校准为 {}，预计单次哈希 {} ms", cost, Math.round(elapsedMillis));
+        return new BCryptPasswordEncoder(cost);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.example.usermgmt.config;
+
+import com.example.usermgmt.service.AuditLogStore;
+import com.example.usermgmt.service.AuditRollups;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * 开启 spring.main.lazy-initialization 时仍在启动阶段创建的 bean：
+     * 审计日志存储要恢复段文件、汇总要重建时间桶、密码编码器要校准 BCrypt 成本，
+     * 放到第一个请求里做会让首个请求多等几百毫秒
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(AuditLogStore.class, AuditRollups.class,
+            PasswordEncoder.class);
+    }
+}
@@ -1,39 +1,78 @@
 package com.example.usermgmt.controller;
 
+import com.example.usermgmt.entity.User;
+import com.example.usermgmt.service.JwtService;
+import com.example.usermgmt.service.LastLoginRecorder;
+import com.example.usermgmt.service.PasswordHasher;
+import com.example.usermgmt.service.UserEntry;
+import com.example.usermgmt.service.UserStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/auth")
 @CrossOrigin(origins = "http://localhost:3000")
+@RequiredArgsConstructor
 public class AuthController {
 
+    private final JwtService jwtService;
+    private final UserStore userStore;
+    private final PasswordHasher passwordHasher;
+    private final LastLoginRecorder lastLoginRecorder;
+
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> credentials) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> credentials) {
         String username = credentials.get("username");
         String password = credentials.get("password");
 
-        // 简单的用户名密码验证
-        if ("admin".equals(username) && "admin123".equals(password)) {
+        // 锁定或停用的用户与密码错误同样处理，且不排队计算哈希
+        Optional<UserEntry> user = userStore.findByUsername(username)
+            .filter(u -> User.UserStatus.ACTIVE.name().equals(u.status()));
+        Optional<String> passwordHash = user.flatMap(u -> userStore.passwordHashOf(u.id()));
+        if (password == null || passwordHash.isEmpty()) {
+            return CompletableFuture.completedFuture(invalidCredentials());
+        }
+
+        // 密码校验在独立的哈希线程池中执行，不占用请求线程
+        CompletableFuture<Boolean> verified;
+        try {
+            verified = passwordHasher.matches(password, passwordHash.get());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests());
+        }
+        return verified.thenApply(matched -> {
+            if (!matched) {
+                return invalidCredentials();
+            }
+            long userId = user.get().id();
+            String role = user.get().role();
+            if (passwordHasher.needsRehash(passwordHash.get())) {
+                rehash(userId, password, passwordHash.get());
+            }
+            lastLoginRecorder.record(username, LocalDateTime.now());
+
             Map<String, Object> response = new HashMap<>();
             response.put("status", "success");
             response.put("message", "登录成功");
-            response.put("token", generateToken(username));
+            // 前端请求时自行加上 "Bearer " 前缀，这里只返回令牌本身
+            response.put("token", jwtService.issue(username, role));
             response.put("user", Map.of(
-                "username", "admin",
-                "role", "ADMIN",
+                "username", username,
+                "role", role,
                 "permissions", new String[]{"read", "write", "delete"}
             ));
             return ResponseEntity.ok(response);
-        }
-
-        return ResponseEntity.badRequest().body(Map.of(
-            "status", "error",
-            "message", "用户名或密码错误"
-        ));
+        });
     }
 
     @PostMapping("/logout")
@@ -46,13 +85,16 @@ public class AuthController {
 
     @GetMapping("/check")
     public ResponseEntity<?> checkAuth(@RequestHeader(value = "Authorization", required = false) String token) {
-        if (token != null && token.startsWith("Bearer ")) {
+        Optional<JwtService.VerifiedToken> verified = token != null && token.startsWith("Bearer ")
+            ? jwtService.verify(token.substring("Bearer ".length()))
+            : Optional.empty();
+        if (verified.isPresent()) {
             return ResponseEntity.ok(Map.of(
                 "status", "success",
                 "authenticated", true,
                 "user", Map.of(
-                    "username", "admin",
-                    "role", "ADMIN",
+                    "username", verified.get().username(),
+                    "role", verified.get().role(),
                     "permissions", new String[]{"read", "write", "delete"}
                 )
             ));
@@ -63,8 +105,27 @@ public class AuthController {
         ));
     }
 
-    private String generateToken(String username) {
-        // 这里简单返回一个固定的token，实际应用中应该使用JWT
-        return "Bearer " + username + "_" + System.currentTimeMillis();
+    /**
+     * 已存哈希的成本低于当前成本时，用本次登录的明文按新成本重新哈希；队列已满时跳过，下次登录再升级
+     */
+    private void rehash(long userId, String password, String oldHash) {
+        try {
+            passwordHasher.hash(password).thenAccept(hash -> userStore.replacePasswordHash(userId, oldHash, hash));
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+
+    private static ResponseEntity<?> invalidCredentials() {
+        return ResponseEntity.badRequest().body(Map.of(
+            "status", "error",
+            "message", "用户名或密码错误"
+        ));
+    }
+
+    private static ResponseEntity<?> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").body(Map.of(
+            "status", "error",
+            "message", "登录请求过多，请稍后重试"
+        ));
     }
-} 
\ No newline at end of file
+}
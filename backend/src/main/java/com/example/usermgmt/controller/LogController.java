@@ -1,20 +1,66 @@
 package com.example.usermgmt.controller;
 
+import com.example.usermgmt.dto.CursorPageResponse;
+import com.example.usermgmt.dto.PageCursor;
+import com.example.usermgmt.dto.PageResponse;
+import com.example.usermgmt.service.AuditDictionary;
+import com.example.usermgmt.service.AuditLogBroadcaster;
+import com.example.usermgmt.service.AuditEntry;
+import com.example.usermgmt.service.AuditLogExporter;
+import com.example.usermgmt.service.AuditLogRetention;
+import com.example.usermgmt.service.AuditLogStore;
+import com.example.usermgmt.service.AuditLogWriter;
+import com.example.usermgmt.service.AuditService;
+import com.example.usermgmt.service.ResourceVersions;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/audit-logs")
 @CrossOrigin(origins = "http://localhost:3000")
 public class LogController {
     
-    // 模拟数据存储
-    private static final List<Map<String, Object>> logs = Collections.synchronizedList(new ArrayList<>());
-    
-    static {
+    private final AuditLogStore auditLogStore;
+    private final AuditService auditService;
+    private final AuditLogWriter auditLogWriter;
+    private final AuditLogExporter auditLogExporter;
+    private final AuditLogRetention auditLogRetention;
+    private final AuditLogBroadcaster auditLogBroadcaster;
+    private final ResourceVersions resourceVersions;
+
+    public LogController(AuditLogStore auditLogStore, AuditService auditService, AuditLogWriter auditLogWriter,
+                         AuditLogExporter auditLogExporter, AuditLogRetention auditLogRetention,
+                         AuditLogBroadcaster auditLogBroadcaster, ResourceVersions resourceVersions) {
+        this.auditLogStore = auditLogStore;
+        this.auditService = auditService;
+        this.auditLogWriter = auditLogWriter;
+        this.auditLogExporter = auditLogExporter;
+        this.auditLogRetention = auditLogRetention;
+        this.auditLogBroadcaster = auditLogBroadcaster;
+        this.resourceVersions = resourceVersions;
+        if (auditLogStore.isEmpty()) {
+            seedSampleLogs();
+        }
+    }
+
+    private void seedSampleLogs() {
         // 添加更多示例日志数据
         String[] usernames = {"admin", "user1", "user2", "manager1"};
         String[] actionTypes = {"LOGIN", "LOGOUT", "CREATE_USER", "UPDATE_USER", "DELETE_USER", "VIEW_USERS", "CHANGE_PASSWORD"};
@@ -23,114 +69,252 @@ public class LogController {
             "删除用户", "查看用户列表", "修改密码", "重置用户密码"
         };
         
-        // 生成20条模拟日志
-        for (int i = 0; i < 20; i++) {
-            String username = usernames[i % usernames.length];
-            String actionType = actionTypes[i % actionTypes.length];
-            String detail = details[i % details.length];
-            
-            Map<String, Object> log = new HashMap<>();
-            log.put("id", i + 1);
-            log.put("userId", (i % 4) + 1);
-            log.put("username", username);
-            log.put("actionType", actionType);
-            log.put("actionDetails", detail + " #" + (i + 1));
-            log.put("ipAddress", "192.168.1." + (100 + i % 20));
-            log.put("userAgent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
-            log.put("createdAt", LocalDateTime.now().minusHours(i).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-            
-            logs.add(log);
+        // 生成20条模拟日志，从最早的一条开始按时间顺序追加
+        long now = System.currentTimeMillis();
+        for (int i = 19; i >= 0; i--) {
+            auditLogStore.append(
+                now - Duration.ofHours(i).toMillis(),
+                (long) (i % 4) + 1,
+                usernames[i % usernames.length],
+                actionTypes[i % actionTypes.length],
+                details[i % details.length] + " #" + (i + 1),
+                "192.168.1." + (100 + i % 20),
+                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36"
+            );
         }
-        
-        // 按时间倒序排序
-        logs.sort((a, b) -> ((String)b.get("createdAt")).compareTo((String)a.get("createdAt")));
     }
 
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAuditLogs(
+    public ResponseEntity<?> getAuditLogs(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
             @RequestParam(required = false) String username,
+            @RequestParam(required = false) Long userId,
             @RequestParam(required = false) String actionType,
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
+            @RequestParam(required = false) String endDate,
+            WebRequest webRequest) {
         
-        List<Map<String, Object>> filteredLogs = new ArrayList<>(logs);
-        
-        // 应用过滤条件
-        if (username != null && !username.isEmpty()) {
-            filteredLogs.removeIf(log -> !log.get("username").toString().toLowerCase().contains(username.toLowerCase()));
+        if (page < 0 || size < 1 || size > PageResponse.MAX_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "status", "error",
+                "message", "页码不能为负数，每页条数必须在1-" + PageResponse.MAX_SIZE + "之间"
+            ));
         }
-        if (actionType != null && !actionType.isEmpty()) {
-            filteredLogs.removeIf(log -> !log.get("actionType").equals(actionType));
+
+        // 日志未新增时直接返回 304
+        if (webRequest.checkNotModified(resourceVersions.etag(null, ResourceVersions.Resource.AUDIT_LOGS))) {
+            return null;
         }
-        // 这里可以添加日期范围过滤逻辑
-        
-        // 分页
-        int start = page * size;
-        int end = Math.min(start + size, filteredLogs.size());
-        List<Map<String, Object>> pageContent = start < filteredLogs.size() ? 
-            filteredLogs.subList(start, end) : new ArrayList<>();
-        
-        // 构造分页响应
-        Map<String, Object> response = new HashMap<>();
-        response.put("content", pageContent);
-        response.put("totalElements", filteredLogs.size());
-        response.put("totalPages", (int) Math.ceil((double) filteredLogs.size() / size));
-        response.put("size", size);
-        response.put("number", page);
-        response.put("first", page == 0);
-        response.put("last", page >= (int) Math.ceil((double) filteredLogs.size() / size) - 1);
-        response.put("empty", pageContent.isEmpty());
-        
-        return ResponseEntity.ok(response);
+
+        // 应用过滤条件：日期范围通过时间索引换算成 id 区间，其余条件在区间内逐条判断
+        Predicate<AuditEntry> filter = buildFilter(username, actionType);
+        AuditLogStore.IdRange range;
+        try {
+            range = timeRange(startDate, endDate);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        }
+
+        // 游标分页：?after=<nextCursor>，首页传空字符串
+        if (after != null) {
+            PageCursor cursor;
+            try {
+                cursor = after.isEmpty() ? null : PageCursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+            }
+            Stream<AuditEntry> tail = stream(range, cursor == null ? Long.MAX_VALUE : cursor.id(), userId);
+            List<AuditEntry> rows = (filter == null ? tail : tail.filter(filter))
+                .limit(size + 1L)
+                .collect(Collectors.toList());
+            boolean hasNext = rows.size() > size;
+            List<AuditEntry> pageRows = hasNext ? rows.subList(0, size) : rows;
+            String nextCursor = hasNext ? cursorOf(pageRows.get(size - 1)).encode() : null;
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(CursorPageResponse.of(pageRows, size, nextCursor));
+        }
+
+        // 分页：只有日期条件时按 id 直接定位到页首，不遍历前面的记录
+        PageResponse<AuditEntry> response;
+        if (filter == null && userId == null) {
+            List<AuditEntry> pageRows = auditLogStore.streamRange(range, range.last() - (long) page * size + 1)
+                .limit(size)
+                .collect(Collectors.toList());
+            response = PageResponse.of(pageRows, range.count(), page, size);
+        } else {
+            Stream<AuditEntry> entries = stream(range, Long.MAX_VALUE, userId);
+            response = PageResponse.collect(filter == null ? entries : entries.filter(filter), page, size);
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
     }
 
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportAuditLogs(
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
             @RequestParam(required = false) String username,
+            @RequestParam(required = false) Long userId,
             @RequestParam(required = false) String actionType,
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
-        
-        // 模拟导出CSV数据
-        StringBuilder csv = new StringBuilder();
-        csv.append("ID,用户名,操作类型,操作详情,IP地址,时间\n");
+            @RequestParam(required = false) String endDate,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
         
-        List<Map<String, Object>> filteredLogs = new ArrayList<>(logs);
-        // 应用相同的过滤逻辑...
-        
-        for (Map<String, Object> log : filteredLogs) {
-            csv.append(log.get("id")).append(",")
-               .append(log.get("username")).append(",")
-               .append(log.get("actionType")).append(",")
-               .append(log.get("actionDetails")).append(",")
-               .append(log.get("ipAddress")).append(",")
-               .append(log.get("createdAt")).append("\n");
+        Predicate<AuditEntry> filter = buildFilter(username, actionType);
+        AuditLogStore.IdRange range;
+        AuditLogExporter.Format exportFormat;
+        try {
+            range = timeRange(startDate, endDate);
+            exportFormat = AuditLogExporter.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        // 边读边写到响应流，不在内存中拼装整个文件
+        StreamingResponseBody body = out -> {
+            Stream<AuditEntry> entries = stream(range, Long.MAX_VALUE, userId);
+            if (filter != null) {
+                entries = entries.filter(filter);
+            }
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                auditLogExporter.export(entries, exportFormat, gzipOut);
+                gzipOut.finish();
+            } else {
+                auditLogExporter.export(entries, exportFormat, out);
+            }
+        };
+
+        boolean csv = exportFormat == AuditLogExporter.Format.CSV;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header("Content-Type", csv ? "text/csv; charset=UTF-8" : "application/x-ndjson")
+                .header("Content-Disposition", "attachment; filename=audit-logs." + (csv ? "csv" : "ndjson"))
+                .header("Vary", "Accept-Encoding");
+        if (gzip) {
+            response.header("Content-Encoding", "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * 实时推送新日志（SSE），过滤条件与列表查询相同；带 Last-Event-ID 重连时补发断开期间的记录
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<SseEmitter> streamAuditLogs(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String actionType,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) throws IOException {
+
+        Long resumeAfter;
+        try {
+            resumeAfter = lastEventId == null || lastEventId.isEmpty() ? null : Long.parseLong(lastEventId);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "无效的 Last-Event-ID: " + lastEventId);
+        }
+        Predicate<AuditEntry> filter = buildFilter(username, actionType);
+        if (userId != null) {
+            filter = and(filter, log -> userId.equals(log.userId()));
+        }
+        try {
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore())
+                .body(auditLogBroadcaster.subscribe(filter, resumeAfter));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
         }
-        
-        byte[] csvBytes = csv.toString().getBytes();
-        
-        return ResponseEntity.ok()
-                .header("Content-Type", "text/csv")
-                .header("Content-Disposition", "attachment; filename=audit-logs.csv")
-                .body(csvBytes);
     }
 
     @PostMapping
     public ResponseEntity<?> addAuditLog(@RequestBody Map<String, String> logData) {
-        Map<String, Object> log = new HashMap<>();
-        log.put("id", logs.size() + 1);
-        log.put("userId", 1);  // 默认当前用户ID
-        log.put("username", logData.getOrDefault("username", "admin"));
-        log.put("actionType", logData.get("actionType"));
-        log.put("actionDetails", logData.get("actionDetails"));
-        log.put("ipAddress", logData.getOrDefault("ipAddress", "192.168.1.100"));
-        log.put("userAgent", logData.getOrDefault("userAgent", "Mozilla/5.0"));
-        log.put("createdAt", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-        
-        logs.add(0, log);  // 添加到列表开头
+        if (logData.get("actionType") == null || logData.get("actionType").isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "status", "error",
+                "message", "操作类型不能为空"
+            ));
+        }
+        String ipAddress = logData.getOrDefault("ipAddress", "192.168.1.100");
+        if (AuditDictionary.toBinary(ipAddress) == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "status", "error",
+                "message", "无效的 IP 地址: " + ipAddress
+            ));
+        }
+
+        AuditEntry log = auditService.record(
+            1L,  // 默认当前用户ID
+            logData.getOrDefault("username", "admin"),
+            logData.get("actionType"),
+            logData.get("actionDetails"),
+            ipAddress,
+            logData.getOrDefault("userAgent", "Mozilla/5.0")
+        );
         
         return ResponseEntity.ok(log);
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/pipeline")
+    public ResponseEntity<Map<String, Object>> getPipelineStats() {
+        return ResponseEntity.ok(auditLogWriter.stats());
+    }
+
+    @GetMapping("/retention")
+    public ResponseEntity<Map<String, Object>> getRetentionStats() {
+        return ResponseEntity.ok(auditLogRetention.stats());
+    }
+
+    /**
+     * 组合过滤条件，没有任何条件时返回 null
+     */
+    private static Predicate<AuditEntry> buildFilter(String username, String actionType) {
+        Predicate<AuditEntry> filter = null;
+        if (username != null && !username.isEmpty()) {
+            String keyword = username.toLowerCase();
+            filter = and(filter, log -> log.username() != null && log.username().toLowerCase().contains(keyword));
+        }
+        if (actionType != null && !actionType.isEmpty()) {
+            filter = and(filter, log -> actionType.equals(log.actionType()));
+        }
+        return filter;
+    }
+
+    /**
+     * 日期范围对应的 id 区间；日期格式为 yyyy-MM-dd 或 yyyy-MM-ddTHH:mm:ss。
+     * 不指定开始日期时只查热数据，开始日期早于保留期时才读取归档
+     */
+    private AuditLogStore.IdRange timeRange(String startDate, String endDate) {
+        long to = endDate == null || endDate.isEmpty() ? Long.MAX_VALUE : toEpochMillis(endDate, true);
+        if (startDate == null || startDate.isEmpty()) {
+            return auditLogStore.idRange(Long.MIN_VALUE, to).atLeast(auditLogStore.firstHotId());
+        }
+        return auditLogStore.idRange(toEpochMillis(startDate, false), to);
+    }
+
+    private Stream<AuditEntry> stream(AuditLogStore.IdRange range, long beforeId, Long userId) {
+        return userId == null
+            ? auditLogStore.streamRange(range, beforeId)
+            : auditLogStore.streamRange(range, beforeId, userId);
+    }
+
+    /**
+     * 解析日期参数，只有日期的结束时间取次日零点（不含）
+     */
+    private static long toEpochMillis(String value, boolean end) {
+        try {
+            LocalDateTime time = value.length() <= 10
+                ? LocalDate.parse(value).atStartOfDay().plusDays(end ? 1 : 0)
+                : LocalDateTime.parse(value);
+            return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("无效的日期格式: " + value);
+        }
+    }
+
+    private static PageCursor cursorOf(AuditEntry log) {
+        return new PageCursor(log.createdAt(), log.id());
+    }
+
+    private static <T> Predicate<T> and(Predicate<T> current, Predicate<T> next) {
+        return current == null ? next : current.and(next);
+    }
+}
\ No newline at end of file
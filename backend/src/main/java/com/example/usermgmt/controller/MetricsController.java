@@ -0,0 +1,37 @@
+package com.example.usermgmt.controller;
+
+import com.example.usermgmt.service.MetricsExporter;
+import com.example.usermgmt.service.StartupReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private static final MediaType PROMETHEUS_TEXT = MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8");
+
+    private final MetricsExporter metricsExporter;
+    private final StartupReport startupReport;
+
+    @GetMapping
+    public ResponseEntity<String> getMetrics() {
+        return ResponseEntity.ok().contentType(PROMETHEUS_TEXT).body(metricsExporter.scrape());
+    }
+
+    /**
+     * 最近一次启动的耗时报告：各阶段耗时和初始化最慢的 bean
+     */
+    @GetMapping("/startup")
+    public ResponseEntity<StartupReport.Report> getStartupReport() {
+        return startupReport.report()
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+}
@@ -1,21 +1,31 @@
 package com.example.usermgmt.controller;
 
+import com.example.usermgmt.service.ResourceVersions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.*;
 
 @RestController
 @RequestMapping("/profile")
 @CrossOrigin(origins = "http://localhost:3000")
+@RequiredArgsConstructor
 public class ProfileController {
 
+    private final ResourceVersions resourceVersions;
+
     // 模拟当前登录用户
     private static Map<String, Object> currentUser = createCurrentUser();
 
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getCurrentProfile() {
-        return ResponseEntity.ok(currentUser);
+    public ResponseEntity<Map<String, Object>> getCurrentProfile(WebRequest webRequest) {
+        if (webRequest.checkNotModified(resourceVersions.etag(null, ResourceVersions.Resource.PROFILE))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(currentUser);
     }
 
     @PutMapping
@@ -32,6 +42,7 @@ public class ProfileController {
         }
         
         currentUser.put("updatedAt", new Date());
+        resourceVersions.bump(ResourceVersions.Resource.PROFILE);
         
         return ResponseEntity.ok(currentUser);
     }
@@ -1,123 +1,215 @@
 package com.example.usermgmt.controller;
 
+import com.example.usermgmt.dto.CursorPageResponse;
+import com.example.usermgmt.dto.PageCursor;
+import com.example.usermgmt.dto.PageResponse;
+import com.example.usermgmt.entity.AuditLog;
+import com.example.usermgmt.entity.User;
+import com.example.usermgmt.service.AuditService;
+import com.example.usermgmt.service.LastLoginRecorder;
+import com.example.usermgmt.service.PasswordHasher;
+import com.example.usermgmt.service.ResourceVersions;
+import com.example.usermgmt.service.UserEntry;
+import com.example.usermgmt.service.UserImporter;
+import com.example.usermgmt.service.UserSearchIndex;
+import com.example.usermgmt.service.UserStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/users")
 @CrossOrigin(origins = "http://localhost:3000")
+@RequiredArgsConstructor
 public class UserController {
-    
-    // 模拟数据库存储
-    private static final List<Map<String, Object>> users = new ArrayList<>();
-    static {
-        users.add(createUser(1, "admin", "System", "Admin", "ADMIN", "admin@example.com"));
-        users.add(createUser(2, "user1", "John", "Doe", "USER", "user1@example.com"));
-        users.add(createUser(3, "user2", "Jane", "Smith", "USER", "user2@example.com"));
-        users.add(createUser(4, "manager1", "Mike", "Johnson", "MANAGER", "manager1@example.com"));
-    }
+
+    private final UserStore userStore;
+    private final ResourceVersions resourceVersions;
+    private final PasswordHasher passwordHasher;
+    private final UserImporter userImporter;
+    private final AuditService auditService;
+    private final LastLoginRecorder lastLoginRecorder;
 
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllUsers(
+    public ResponseEntity<?> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String search,
             @RequestParam(required = false) String username,
             @RequestParam(required = false) String role,
-            @RequestParam(required = false) String status) {
-        
-        List<Map<String, Object>> filteredUsers = new ArrayList<>(users);
+            @RequestParam(required = false) String status,
+            WebRequest webRequest) {
         
+        if (page < 0 || size < 1 || size > PageResponse.MAX_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "status", "error",
+                "message", "页码不能为负数，每页条数必须在1-" + PageResponse.MAX_SIZE + "之间"
+            ));
+        }
+
+        // 数据版本未变时直接返回 304
+        if (webRequest.checkNotModified(resourceVersions.etag(null, ResourceVersions.Resource.USERS))) {
+            return null;
+        }
+
         // 简单过滤
+        Predicate<UserEntry> filter = u -> true;
+        boolean filtered = false;
         if (username != null && !username.isEmpty()) {
-            filteredUsers.removeIf(u -> !u.get("username").toString().toLowerCase().contains(username.toLowerCase()));
+            filter = filter.and(matching(username, EnumSet.of(UserSearchIndex.Field.USERNAME)));
+            filtered = true;
         }
         if (role != null && !role.isEmpty()) {
-            filteredUsers.removeIf(u -> !u.get("role").toString().equals(role));
+            filter = filter.and(u -> role.equals(u.role()));
+            filtered = true;
         }
-        
-        // 分页
-        int start = page * size;
-        int end = Math.min(start + size, filteredUsers.size());
-        List<Map<String, Object>> pageContent = start < filteredUsers.size() ? 
-            filteredUsers.subList(start, end) : new ArrayList<>();
-        
-        // 构造分页响应
-        Map<String, Object> response = new HashMap<>();
-        response.put("content", pageContent);
-        response.put("totalElements", filteredUsers.size());
-        response.put("totalPages", (int) Math.ceil((double) filteredUsers.size() / size));
-        response.put("size", size);
-        response.put("number", page);
-        response.put("first", page == 0);
-        response.put("last", page >= (int) Math.ceil((double) filteredUsers.size() / size) - 1);
-        response.put("empty", pageContent.isEmpty());
-        
-        return ResponseEntity.ok(response);
+        if (status != null && !status.isEmpty()) {
+            filter = filter.and(u -> status.equals(u.status()));
+            filtered = true;
+        }
+
+        // 游标分页：?after=<nextCursor>，首页传空字符串
+        if (after != null) {
+            PageCursor cursor;
+            try {
+                cursor = after.isEmpty() ? null : PageCursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+            }
+            if (search != null && !search.isEmpty()) {
+                filter = filter.and(matching(search, EnumSet.allOf(UserSearchIndex.Field.class)));
+            }
+            List<UserEntry> rows = userStore.streamAfter(cursor)
+                .filter(filter)
+                .limit(size + 1L)
+                .map(lastLoginRecorder::merge)
+                .collect(Collectors.toList());
+            boolean hasNext = rows.size() > size;
+            List<UserEntry> pageContent = hasNext ? rows.subList(0, size) : rows;
+            String nextCursor = hasNext ? UserStore.cursorOf(pageContent.get(size - 1)).encode() : null;
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(CursorPageResponse.of(pageContent, size, nextCursor));
+        }
+
+        // search 同时匹配用户名、邮箱和姓名，结果按相关度排序
+        boolean searching = search != null && !search.isEmpty();
+        PageResponse<UserEntry> response;
+        if (!searching && !filtered) {
+            // 无任何条件时总数直接取存储大小，只遍历到当前页
+            List<UserEntry> pageContent = userStore.stream()
+                .skip((long) page * size)
+                .limit(size)
+                .map(lastLoginRecorder::merge)
+                .collect(Collectors.toList());
+            response = PageResponse.of(pageContent, userStore.size(), page, size);
+        } else {
+            Stream<UserEntry> source = searching
+                ? userStore.search(search, EnumSet.allOf(UserSearchIndex.Field.class)).stream()
+                : userStore.stream();
+            PageResponse<UserEntry> matched = PageResponse.collect(source.filter(filter), page, size);
+            response = PageResponse.of(matched.content().stream().map(lastLoginRecorder::merge).toList(),
+                matched.totalElements(), page, size);
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUser(@PathVariable String id) {
-        Optional<Map<String, Object>> user = users.stream()
-            .filter(u -> u.get("id").toString().equals(id))
-            .findFirst();
-        
-        return user.map(ResponseEntity::ok)
+    public ResponseEntity<?> getUser(@PathVariable String id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(resourceVersions.etag(null, ResourceVersions.Resource.USERS))) {
+            return null;
+        }
+        return findUser(id)
+            .map(lastLoginRecorder::merge)
+            .<ResponseEntity<?>>map(user -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(user))
             .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public ResponseEntity<?> createUser(@RequestBody Map<String, String> userData) {
-        String username = userData.get("username");
-        if (users.stream().anyMatch(u -> u.get("username").equals(username))) {
-            return ResponseEntity.badRequest().body(Map.of(
-                "status", "error",
-                "message", "用户名已存在"
-            ));
+    public CompletableFuture<ResponseEntity<?>> createUser(@RequestBody Map<String, String> userData) {
+        String password = userData.get("password");
+        if (password == null || password.isEmpty()) {
+            return CompletableFuture.completedFuture(create(userData, null));
         }
+        // 先做廉价的唯一性检查，避免为注定失败的请求计算哈希
+        if (userStore.existsByUsername(userData.get("username"))) {
+            return CompletableFuture.completedFuture(error("用户名已存在"));
+        }
+        if (userStore.existsByEmail(userData.get("email"))) {
+            return CompletableFuture.completedFuture(error("邮箱已存在"));
+        }
+        try {
+            return passwordHasher.hash(password).thenApply(hash -> create(userData, hash));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("status", "error", "message", "请求过多，请稍后重试")));
+        }
+    }
 
-        int newId = users.size() + 1;
-        Map<String, Object> newUser = createUser(
-            newId,
-            username,
-            userData.get("firstName"),
-            userData.get("lastName"),
-            userData.get("role"),
-            userData.get("email")
-        );
-        users.add(newUser);
-
-        return ResponseEntity.ok(newUser);
+    private ResponseEntity<?> create(Map<String, String> userData, String passwordHash) {
+        try {
+            UserEntry newUser = userStore.create(
+                userData.get("username"),
+                userData.get("firstName"),
+                userData.get("lastName"),
+                userData.get("role"),
+                userData.get("email"),
+                passwordHash
+            );
+            return ResponseEntity.ok(newUser);
+        } catch (IllegalArgumentException e) {
+            return error(e.getMessage());
+        }
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<?> updateUser(@PathVariable String id, @RequestBody Map<String, String> userData) {
-        Optional<Map<String, Object>> userOpt = users.stream()
-            .filter(u -> u.get("id").toString().equals(id))
-            .findFirst();
-
-        if (userOpt.isEmpty()) {
+        Long userId = parseId(id);
+        if (userId == null) {
             return ResponseEntity.notFound().build();
         }
 
-        Map<String, Object> user = userOpt.get();
-        user.put("firstName", userData.get("firstName"));
-        user.put("lastName", userData.get("lastName"));
-        user.put("email", userData.get("email"));
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("firstName", userData.get("firstName"));
+        changes.put("lastName", userData.get("lastName"));
+        changes.put("email", userData.get("email"));
         if (userData.containsKey("role")) {
-            user.put("role", userData.get("role"));
+            changes.put("role", userData.get("role"));
         }
-        user.put("updatedAt", new Date());
 
-        return ResponseEntity.ok(user);
+        try {
+            return userStore.update(userId, changes)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return error(e.getMessage());
+        }
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable String id) {
-        boolean removed = users.removeIf(u -> u.get("id").toString().equals(id));
-        
-        if (!removed) {
+        Long userId = parseId(id);
+        if (userId == null || !userStore.delete(userId)) {
             return ResponseEntity.notFound().build();
         }
 
@@ -129,28 +221,123 @@ public class UserController {
 
     @PatchMapping("/{id}/status")
     public ResponseEntity<?> updateUserStatus(@PathVariable String id, @RequestBody Map<String, String> statusData) {
-        Optional<Map<String, Object>> userOpt = users.stream()
-            .filter(u -> u.get("id").toString().equals(id))
-            .findFirst();
-
-        if (userOpt.isEmpty()) {
+        Long userId = parseId(id);
+        if (userId == null) {
             return ResponseEntity.notFound().build();
         }
 
-        Map<String, Object> user = userOpt.get();
-        user.put("status", statusData.get("status"));
-        user.put("updatedAt", new Date());
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("status", statusData.get("status"));
+        return userStore.update(userId, changes)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 批量修改状态或角色：按 ids 或 filter（role、status、lastLoginBefore）选出用户，一次性应用修改，
+     * 记录一条汇总审计日志和每个用户的修改明细。lastLoginBefore 同时匹配从未登录的用户。
+     */
+    @PatchMapping("/bulk")
+    public ResponseEntity<?> bulkUpdate(@RequestBody Map<String, Object> request, HttpServletRequest httpRequest) {
+        Map<String, Object> changes = new HashMap<>();
+        try {
+            if (request.get("status") != null) {
+                changes.put("status", User.UserStatus.valueOf(request.get("status").toString()).name());
+            }
+            if (request.get("role") != null) {
+                changes.put("role", User.UserRole.valueOf(request.get("role").toString()).name());
+            }
+        } catch (IllegalArgumentException e) {
+            return error("无效的状态或角色");
+        }
+        if (changes.isEmpty()) {
+            return error("status 和 role 至少指定一个");
+        }
+
+        // ids 为空数组时视为未指定，只按 filter 选择
+        List<Long> ids = null;
+        if (request.get("ids") instanceof List<?> list && !list.isEmpty()) {
+            ids = new ArrayList<>(list.size());
+            for (Object value : list) {
+                Long id = value == null ? null : parseId(value.toString());
+                if (id == null) {
+                    return error("无效的用户ID: " + value);
+                }
+                ids.add(id);
+            }
+        }
+        Predicate<UserEntry> filter = u -> true;
+        boolean filtered = false;
+        if (request.get("filter") instanceof Map<?, ?> criteria) {
+            Object role = criteria.get("role");
+            Object status = criteria.get("status");
+            Object lastLoginBefore = criteria.get("lastLoginBefore");
+            if (role != null) {
+                filter = filter.and(u -> role.toString().equals(u.role()));
+                filtered = true;
+            }
+            if (status != null) {
+                filter = filter.and(u -> status.toString().equals(u.status()));
+                filtered = true;
+            }
+            if (lastLoginBefore != null) {
+                LocalDateTime before;
+                try {
+                    before = parseDateTime(lastLoginBefore.toString());
+                } catch (DateTimeParseException e) {
+                    return error("无效的时间: " + lastLoginBefore);
+                }
+                filter = filter.and(u -> {
+                    String lastLogin = lastLoginRecorder.merge(u).lastLogin();
+                    return lastLogin == null || LocalDateTime.parse(lastLogin).isBefore(before);
+                });
+                filtered = true;
+            }
+        }
+        // 不允许不带条件地修改全部用户
+        if (ids == null && !filtered) {
+            return error("必须指定 ids 或 filter");
+        }
 
-        return ResponseEntity.ok(user);
+        List<UserStore.BulkChange> applied = userStore.updateAll(ids, filter, changes);
+        recordBulkUpdate(applied, changes, httpRequest);
+        return ResponseEntity.ok(Map.of(
+            "status", "success",
+            "affected", applied.size()
+        ));
+    }
+
+    /**
+     * 批量导入：请求体为 CSV（首行为表头）或 NDJSON，列为 username、email、firstName、lastName、role、
+     * password（明文，导入时哈希）或 passwordHash（已是 BCrypt 哈希）
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> bulkImport(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            HttpServletRequest request) throws IOException {
+        UserImporter.Format importFormat;
+        if (format != null) {
+            try {
+                importFormat = UserImporter.Format.valueOf(format.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return error("不支持的导入格式: " + format);
+            }
+        } else {
+            importFormat = contentType != null && contentType.contains("json")
+                ? UserImporter.Format.NDJSON
+                : UserImporter.Format.CSV;
+        }
+        try {
+            return ResponseEntity.ok(userImporter.importUsers(request.getInputStream(), importFormat));
+        } catch (JsonProcessingException e) {
+            return error("导入数据格式错误: " + e.getOriginalMessage());
+        }
     }
 
     @PostMapping("/{id}/reset-password")
     public ResponseEntity<?> resetUserPassword(@PathVariable String id) {
-        Optional<Map<String, Object>> userOpt = users.stream()
-            .filter(u -> u.get("id").toString().equals(id))
-            .findFirst();
-
-        if (userOpt.isEmpty()) {
+        if (findUser(id).isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
@@ -158,18 +345,60 @@ public class UserController {
         return ResponseEntity.ok(Map.of("newPassword", newPassword));
     }
 
-    private static Map<String, Object> createUser(int id, String username, String firstName, String lastName, String role, String email) {
-        Map<String, Object> user = new HashMap<>();
-        user.put("id", id);
-        user.put("username", username);
-        user.put("firstName", firstName);
-        user.put("lastName", lastName);
-        user.put("role", role);
-        user.put("email", email);
-        user.put("status", "ACTIVE");
-        user.put("lastLogin", "2024-12-13T10:30:00");
-        user.put("createdAt", "2024-12-01T08:00:00");
-        user.put("updatedAt", "2024-12-13T10:30:00");
-        return user;
-    }
-} 
\ No newline at end of file
+    private void recordBulkUpdate(List<UserStore.BulkChange> applied, Map<String, Object> changes,
+                                  HttpServletRequest request) {
+        if (applied.isEmpty()) {
+            return;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String actor = authentication != null ? authentication.getName() : null;
+        Long actorId = actor == null ? null
+            : userStore.findByUsername(actor).map(UserEntry::id).orElse(null);
+        String ipAddress = request.getRemoteAddr();
+        String userAgent = request.getHeader(HttpHeaders.USER_AGENT);
+
+        auditService.record(actorId, actor, AuditLog.Actions.BULK_UPDATE_USERS,
+            "批量修改 " + applied.size() + " 个用户: " + changes, ipAddress, userAgent);
+        for (UserStore.BulkChange change : applied) {
+            StringBuilder details = new StringBuilder("批量修改用户 ")
+                .append(change.after().username()).append("(#").append(change.after().id()).append(")");
+            changes.keySet().forEach(field -> details.append(", ").append(field).append(": ")
+                .append(change.before().field(field)).append(" -> ").append(change.after().field(field)));
+            auditService.record(actorId, actor, AuditLog.Actions.UPDATE_USER, details.toString(), ipAddress, userAgent);
+        }
+    }
+
+    /**
+     * 支持日期（当天零点）或日期时间
+     */
+    private static LocalDateTime parseDateTime(String value) {
+        return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+    }
+
+    private Predicate<UserEntry> matching(String term, Set<UserSearchIndex.Field> fields) {
+        Set<Long> ids = userStore.search(term, fields).stream()
+            .map(UserEntry::id)
+            .collect(Collectors.toSet());
+        return u -> ids.contains(u.id());
+    }
+
+    private Optional<UserEntry> findUser(String id) {
+        Long userId = parseId(id);
+        return userId == null ? Optional.empty() : userStore.findById(userId);
+    }
+
+    private static Long parseId(String id) {
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static ResponseEntity<?> error(String message) {
+        return ResponseEntity.badRequest().body(Map.of(
+            "status", "error",
+            "message", message
+        ));
+    }
+}
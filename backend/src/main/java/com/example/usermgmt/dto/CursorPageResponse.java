@@ -0,0 +1,13 @@
+package com.example.usermgmt.dto;
+
+import java.util.List;
+
+/**
+ * 游标分页响应，nextCursor 在没有下一页时为 null
+ */
+public record CursorPageResponse<T>(List<T> content, int size, boolean hasNext, String nextCursor, boolean empty) {
+
+    public static <T> CursorPageResponse<T> of(List<T> content, int size, String nextCursor) {
+        return new CursorPageResponse<>(content, size, nextCursor != null, nextCursor, content.isEmpty());
+    }
+}
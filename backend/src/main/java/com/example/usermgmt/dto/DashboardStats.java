@@ -0,0 +1,21 @@
+package com.example.usermgmt.dto;
+
+import java.util.List;
+
+/**
+ * 仪表板统计
+ */
+public record DashboardStats(int totalUsers, long activeUsers, long newUsersToday, long totalLogins,
+                             List<LoginTrend> loginTrends, List<RoleCount> usersByRole,
+                             List<StatusCount> usersByStatus) {
+
+    /** 某天的登录次数，date 为 MM-dd */
+    public record LoginTrend(String date, long count) {
+    }
+
+    public record RoleCount(String role, long count) {
+    }
+
+    public record StatusCount(String status, long count) {
+    }
+}
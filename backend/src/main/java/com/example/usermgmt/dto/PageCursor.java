@@ -0,0 +1,39 @@
+package com.example.usermgmt.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * 游标分页位置：(时间, id)
+ *
+ * 对外以不透明的 Base64 字符串传递，客户端只需原样回传 nextCursor。
+ */
+public record PageCursor(LocalDateTime time, long id) {
+
+    /** 按 (时间, id) 升序 */
+    public static final Comparator<PageCursor> ASCENDING =
+        Comparator.comparing(PageCursor::time).thenComparingLong(PageCursor::id);
+
+    /** 按 (时间, id) 降序 */
+    public static final Comparator<PageCursor> DESCENDING = ASCENDING.reversed();
+
+    public String encode() {
+        String raw = time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，格式不正确时抛出 IllegalArgumentException
+     */
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+}
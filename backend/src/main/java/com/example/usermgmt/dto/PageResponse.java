@@ -0,0 +1,40 @@
+package com.example.usermgmt.dto;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 页码分页响应，字段与前端使用的 Spring Data Page 结构一致
+ */
+public record PageResponse<T>(List<T> content, long totalElements, int totalPages, int size, int number,
+                              boolean first, boolean last, boolean empty) {
+
+    /**
+     * 单页条数上限，页码分页和游标分页共用
+     */
+    public static final int MAX_SIZE = 100;
+
+    public static <T> PageResponse<T> of(List<T> content, long totalElements, int page, int size) {
+        int totalPages = (int) Math.ceil((double) totalElements / size);
+        return new PageResponse<>(content, totalElements, totalPages, size, page,
+            page == 0, page >= totalPages - 1, content.isEmpty());
+    }
+
+    /**
+     * 遍历全部匹配项计数，只保留当前页的元素，不把所有匹配项收集成列表
+     */
+    public static <T> PageResponse<T> collect(Stream<T> matches, int page, int size) {
+        long start = (long) page * size;
+        List<T> content = new ArrayList<>(size);
+        long total = 0;
+        for (Iterator<T> it = matches.iterator(); it.hasNext(); total++) {
+            T item = it.next();
+            if (total >= start && content.size() < size) {
+                content.add(item);
+            }
+        }
+        return of(content, total, page, size);
+    }
+}
@@ -33,4 +33,4 @@ public class UserDTO {
         this.updatedAt = user.getUpdatedAt();
         this.lastLoginAt = user.getLastLoginAt();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
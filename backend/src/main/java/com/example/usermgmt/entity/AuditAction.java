@@ -0,0 +1,28 @@
+package com.example.usermgmt.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * 审计日志操作字典：操作名及其所属资源，审计日志每行只保存 SMALLINT 编码。
+ * {@link AuditLog.Actions} 中的常量由迁移脚本预置固定编码，其余操作在第一次写入时追加。
+ */
+@Entity
+@Table(name = "audit_actions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditAction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Short id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    @Column(nullable = false, length = 16)
+    private String resource;
+}
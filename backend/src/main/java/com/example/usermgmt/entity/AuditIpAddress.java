@@ -0,0 +1,24 @@
+package com.example.usermgmt.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * 审计日志 IP 地址字典，地址以二进制保存：IPv4 4 字节，IPv6 16 字节
+ */
+@Entity
+@Table(name = "audit_ip_addresses")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditIpAddress {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true, length = 16)
+    private byte[] address;
+}
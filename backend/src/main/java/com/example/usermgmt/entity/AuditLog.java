@@ -5,56 +5,68 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 
+/**
+ * 审计日志落库的行
+ *
+ * 操作、User-Agent 和 IP 地址只保存字典表（{@link AuditAction}、{@link AuditUserAgent}、{@link AuditIpAddress}）
+ * 中的编码，资源由操作决定、保存在操作字典中；用户名不再冗余保存，按 user_id 关联 users 表取得。
+ */
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", indexes = {
+    @Index(name = "idx_audit_logs_timestamp", columnList = "timestamp"),
+    @Index(name = "idx_audit_logs_action_timestamp", columnList = "action_id, timestamp"),
+    @Index(name = "idx_audit_logs_user_timestamp", columnList = "user_id, timestamp")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EntityListeners(AuditingEntityListener.class)
 public class AuditLog {
 
+    // IDENTITY 会让 Hibernate 每条记录单独 INSERT 取回主键，无法走 JDBC 批量；改用号段表一次分配一批 id
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "audit_log_id")
+    @TableGenerator(name = "audit_log_id", table = "id_generators", pkColumnName = "name",
+        valueColumnName = "next_val", pkColumnValue = "audit_logs", allocationSize = 500)
     private Long id;
 
     @Column(name = "user_id")
     private Long userId;
 
-    @Column(name = "username", nullable = false)
-    private String username;
-
-    @Column(nullable = false)
-    private String action;
-
-    @Column(nullable = false)
-    private String resource;
+    @Column(name = "action_id", nullable = false)
+    private Short actionId;
 
     @Column(columnDefinition = "TEXT")
     private String details;
 
-    @Column(name = "ip_address")
-    private String ipAddress;
+    @Column(name = "ip_address_id")
+    private Integer ipAddressId;
 
-    @Column(name = "user_agent", columnDefinition = "TEXT")
-    private String userAgent;
+    @Column(name = "user_agent_id")
+    private Integer userAgentId;
 
-    @CreatedDate
+    // 异步批量写入时保留事件发生的时间，而不是落库时间
     @Column(name = "timestamp", updatable = false)
     private LocalDateTime timestamp;
 
-    // 常用操作常量
+    @PrePersist
+    public void prePersist() {
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
+    }
+
+    // 常用操作常量，迁移脚本按声明顺序为它们预置操作编码 1-12
     public static class Actions {
         public static final String LOGIN = "LOGIN";
         public static final String LOGOUT = "LOGOUT";
         public static final String CREATE_USER = "CREATE_USER";
         public static final String UPDATE_USER = "UPDATE_USER";
         public static final String DELETE_USER = "DELETE_USER";
+        public static final String BULK_UPDATE_USERS = "BULK_UPDATE_USERS";
         public static final String RESET_PASSWORD = "RESET_PASSWORD";
         public static final String CHANGE_PASSWORD = "CHANGE_PASSWORD";
         public static final String UPDATE_PROFILE = "UPDATE_PROFILE";
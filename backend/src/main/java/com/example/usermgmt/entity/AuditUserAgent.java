@@ -0,0 +1,27 @@
+package com.example.usermgmt.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * 审计日志 User-Agent 字典，按 UTF-8 内容的 SHA-256 去重
+ */
+@Entity
+@Table(name = "audit_user_agents")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditUserAgent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true, length = 32)
+    private byte[] hash;
+
+    @Column(name = "user_agent", nullable = false, columnDefinition = "TEXT")
+    private String userAgent;
+}
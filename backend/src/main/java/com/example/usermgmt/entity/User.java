@@ -7,21 +7,32 @@ import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_status", columnList = "status"),
+    @Index(name = "idx_users_role", columnList = "role"),
+    @Index(name = "idx_users_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_users_last_login_at", columnList = "last_login_at")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
 public class User {
 
+    public static final String CACHE_REGION = "users";
+    public static final String NATURAL_KEY_CACHE_REGION = "users-by-natural-key";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -64,19 +75,11 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    @PrePersist
-    public void prePersist() {
-        if (password != null && !password.startsWith("$2a$")) {
-            // 如果密码没有被加密，则进行加密
-            this.password = new BCryptPasswordEncoder().encode(password);
-        }
-    }
-
-    // 静态方法创建默认管理员用户
-    public static User createDefaultAdmin() {
+    // 静态方法创建默认管理员用户，password 为已加密的密码
+    public static User createDefaultAdmin(String password) {
         User admin = new User();
         admin.setUsername("admin");
-        admin.setPassword("admin");  // 将在保存时自动加密
+        admin.setPassword(password);
         admin.setRole(UserRole.ADMIN);
         admin.setEmail("admin@example.com");
         admin.setFirstName("System");
@@ -4,6 +4,8 @@ import com.example.usermgmt.entity.AuditLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -11,6 +13,10 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     
     Page<AuditLog> findByUserId(Long userId, Pageable pageable);
     
-    Page<AuditLog> findByAction(String action, Pageable pageable);
-    
+    /**
+     * 按操作名查询，操作名经操作字典换成编码
+     */
+    @Query("SELECT a FROM AuditLog a JOIN AuditAction t ON t.id = a.actionId WHERE t.name = :action")
+    Page<AuditLog> findByAction(@Param("action") String action, Pageable pageable);
+
 } 
\ No newline at end of file
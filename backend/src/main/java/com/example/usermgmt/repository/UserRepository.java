@@ -1,10 +1,12 @@
 package com.example.usermgmt.repository;
 
 import com.example.usermgmt.entity.User;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,6 +14,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * 用户数据访问；实体进入二级缓存，用户名/邮箱是否存在的查询结果进入查询缓存，
+ * 通过 Hibernate 执行的写入和批量 UPDATE 会自动使相关缓存失效。
+ * 返回实体的查询不进查询缓存：Hibernate 6 会把实体数据（含密码哈希）一并存进查询结果，
+ * JDBC 直接更新后无法按用户失效。
+ * 用户列表和搜索由内存中的 UserStore 提供，这里不提供列表查询。
+ */
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
@@ -28,32 +37,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
     /**
      * 检查用户名是否存在
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = User.NATURAL_KEY_CACHE_REGION)
+    })
     boolean existsByUsername(String username);
 
     /**
      * 检查邮箱是否存在
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = User.NATURAL_KEY_CACHE_REGION)
+    })
     boolean existsByEmail(String email);
 
-    /**
-     * 根据角色查找用户
-     */
-    List<User> findByRole(User.UserRole role);
-
-    /**
-     * 根据状态查找用户
-     */
-    List<User> findByStatus(User.UserStatus status);
-
-    /**
-     * 分页搜索用户（用户名、邮箱、姓名）
-     */
-    @Query("SELECT u FROM User u WHERE " +
-           "u.username LIKE %:search% OR " +
-           "u.email LIKE %:search% OR " +
-           "CONCAT(u.firstName, ' ', u.lastName) LIKE %:search%")
-    Page<User> findBySearchTerm(@Param("search") String search, Pageable pageable);
-
     /**
      * 统计总用户数
      */
@@ -82,23 +80,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<Object[]> countByStatus();
 
     /**
-     * 获取最近注册的用户
-     */
-    List<User> findTop5ByOrderByCreatedAtDesc();
-
-    /**
-     * 查找最近登录的用户
-     */
-    List<User> findByLastLoginAtIsNotNullOrderByLastLoginAtDesc(Pageable pageable);
-
-    /**
-     * 查找从未登录的用户
-     */
-    List<User> findByLastLoginAtIsNull();
-
-    /**
-     * 更新最后登录时间
+     * 更新单个用户的最后登录时间；登录流程经由 LastLoginRecorder 合并后批量写入
      */
+    @Modifying
     @Query("UPDATE User u SET u.lastLoginAt = :loginTime WHERE u.id = :userId")
-    void updateLastLoginTime(@Param("userId") Long userId, @Param("loginTime") LocalDateTime loginTime);
+    int updateLastLoginTime(@Param("userId") Long userId, @Param("loginTime") LocalDateTime loginTime);
 } 
\ No newline at end of file
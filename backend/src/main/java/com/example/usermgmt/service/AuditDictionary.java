@@ -0,0 +1,233 @@
+package com.example.usermgmt.service;
+
+import com.example.usermgmt.entity.AuditLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 审计日志字典编码
+ *
+ * 把操作名、User-Agent 和 IP 地址换成字典表中的编码，新值在第一次出现时插入（自动提交，不占用批量写入的事务）。
+ * 多个实例同时插入同一个值时唯一约束冲突的一方改为查询已有编码。查到的编码缓存在内存中，
+ * 每个字典最多缓存 audit.dictionary.cache-size 个，超出后直接查库，防止大量不同的 User-Agent 占满内存。
+ */
+@Component
+public class AuditDictionary {
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    // IPv6 字面量只含十六进制数字、冒号和内嵌 IPv4 的点，不接受 zone id 和方括号
+    private static final Pattern IPV6 = Pattern.compile("[0-9A-Fa-f:.]{2,45}");
+    private static final Pattern IPV6_GROUP = Pattern.compile("[0-9A-Fa-f]{1,4}");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int cacheSize;
+    private final Map<String, Short> actions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> userAgents = new ConcurrentHashMap<>();
+    private final Map<String, Integer> ipAddresses = new ConcurrentHashMap<>();
+
+    public AuditDictionary(JdbcTemplate jdbcTemplate, @Value("${audit.dictionary.cache-size:10000}") int cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheSize = cacheSize;
+    }
+
+    public short actionId(String action) {
+        return cached(actions, action, () -> intern(
+            () -> single(jdbcTemplate.queryForList("SELECT id FROM audit_actions WHERE name = ?", Short.class, action)),
+            () -> jdbcTemplate.update("INSERT INTO audit_actions (name, resource) VALUES (?, ?)",
+                action, resourceOf(action))));
+    }
+
+    /**
+     * 为空时返回 null
+     */
+    public Integer userAgentId(String userAgent) {
+        if (userAgent == null || userAgent.isEmpty()) {
+            return null;
+        }
+        return cached(userAgents, userAgent, () -> {
+            byte[] hash = sha256(userAgent);
+            return intern(
+                () -> single(jdbcTemplate.queryForList("SELECT id FROM audit_user_agents WHERE hash = ?",
+                    Integer.class, (Object) hash)),
+                () -> jdbcTemplate.update("INSERT INTO audit_user_agents (hash, user_agent) VALUES (?, ?)",
+                    hash, userAgent));
+        });
+    }
+
+    /**
+     * 为空或不是 IP 地址字面量时返回 null
+     */
+    public Integer ipAddressId(String ipAddress) {
+        byte[] address = toBinary(ipAddress);
+        if (address == null) {
+            return null;
+        }
+        return cached(ipAddresses, ipAddress, () -> intern(
+            () -> single(jdbcTemplate.queryForList("SELECT id FROM audit_ip_addresses WHERE address = ?",
+                Integer.class, (Object) address)),
+            () -> jdbcTemplate.update("INSERT INTO audit_ip_addresses (address) VALUES (?)", (Object) address)));
+    }
+
+    /**
+     * IP 地址字面量的二进制形式（IPv4 4 字节，IPv6 16 字节）；不是 IP 地址字面量时返回 null。
+     * 只做字面量解析，不交给 InetAddress.getByName，任何输入都不会触发 DNS 查询
+     */
+    public static byte[] toBinary(String ipAddress) {
+        if (ipAddress == null) {
+            return null;
+        }
+        if (IPV4.matcher(ipAddress).matches()) {
+            return ipv4(ipAddress);
+        }
+        if (!IPV6.matcher(ipAddress).matches()) {
+            return null;
+        }
+        byte[] address = ipv6(ipAddress);
+        // IPv4 映射地址（::ffff:a.b.c.d）按 IPv4 保存，与直接记录 IPv4 的日志归为同一个地址
+        if (address != null && isIpv4Mapped(address)) {
+            return Arrays.copyOfRange(address, 12, 16);
+        }
+        return address;
+    }
+
+    private static byte[] ipv4(String text) {
+        String[] parts = text.split("\\.");
+        byte[] address = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            int part = Integer.parseInt(parts[i]);
+            if (part > 255) {
+                return null;
+            }
+            address[i] = (byte) part;
+        }
+        return address;
+    }
+
+    /**
+     * 最多一个 "::"，省略的组补 0；最后一组可以是内嵌的 IPv4 地址
+     */
+    private static byte[] ipv6(String text) {
+        int gap = text.indexOf("::");
+        if (gap >= 0 && text.indexOf("::", gap + 1) >= 0) {
+            return null;
+        }
+        byte[] head = ipv6Groups(gap < 0 ? text : text.substring(0, gap), gap < 0);
+        byte[] tail = gap < 0 ? new byte[0] : ipv6Groups(text.substring(gap + 2), true);
+        if (head == null || tail == null) {
+            return null;
+        }
+        int length = head.length + tail.length;
+        // 没有 "::" 时必须正好 8 组；有 "::" 时它至少代表一组
+        if (gap < 0 ? length != 16 : length > 14) {
+            return null;
+        }
+        byte[] address = new byte[16];
+        System.arraycopy(head, 0, address, 0, head.length);
+        System.arraycopy(tail, 0, address, 16 - tail.length, tail.length);
+        return address;
+    }
+
+    private static byte[] ipv6Groups(String text, boolean ipv4Allowed) {
+        if (text.isEmpty()) {
+            return new byte[0];
+        }
+        String[] groups = text.split(":", -1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+        for (int i = 0; i < groups.length; i++) {
+            String group = groups[i];
+            if (ipv4Allowed && i == groups.length - 1 && IPV4.matcher(group).matches()) {
+                byte[] ipv4 = ipv4(group);
+                if (ipv4 == null) {
+                    return null;
+                }
+                bytes.writeBytes(ipv4);
+            } else if (IPV6_GROUP.matcher(group).matches()) {
+                int value = Integer.parseInt(group, 16);
+                bytes.write(value >>> 8);
+                bytes.write(value);
+            } else {
+                return null;
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static boolean isIpv4Mapped(byte[] address) {
+        for (int i = 0; i < 10; i++) {
+            if (address[i] != 0) {
+                return false;
+            }
+        }
+        return address[10] == (byte) 0xff && address[11] == (byte) 0xff;
+    }
+
+    /**
+     * 操作所属的资源
+     */
+    static String resourceOf(String actionType) {
+        if (actionType == null) {
+            return AuditLog.Resources.SYSTEM;
+        }
+        return switch (actionType) {
+            case AuditLog.Actions.LOGIN, AuditLog.Actions.LOGOUT -> AuditLog.Resources.AUTH;
+            case AuditLog.Actions.CREATE_USER, AuditLog.Actions.UPDATE_USER, AuditLog.Actions.DELETE_USER,
+                 AuditLog.Actions.BULK_UPDATE_USERS, AuditLog.Actions.RESET_PASSWORD, AuditLog.Actions.VIEW_USERS -> AuditLog.Resources.USER;
+            case AuditLog.Actions.CHANGE_PASSWORD, AuditLog.Actions.UPDATE_PROFILE -> AuditLog.Resources.PROFILE;
+            case AuditLog.Actions.VIEW_LOGS, AuditLog.Actions.EXPORT_DATA -> AuditLog.Resources.LOG;
+            default -> AuditLog.Resources.SYSTEM;
+        };
+    }
+
+    private <K, V> V cached(Map<K, V> cache, K key, Supplier<V> loader) {
+        V id = cache.get(key);
+        if (id == null) {
+            id = loader.get();
+            if (cache.size() < cacheSize) {
+                cache.put(key, id);
+            }
+        }
+        return id;
+    }
+
+    private static <V> V intern(Supplier<V> select, Runnable insert) {
+        V id = select.get();
+        if (id != null) {
+            return id;
+        }
+        try {
+            insert.run();
+        } catch (DuplicateKeyException e) {
+            // 其他实例已插入同一个值
+        }
+        id = select.get();
+        if (id == null) {
+            throw new IllegalStateException("字典编码插入后仍未查到");
+        }
+        return id;
+    }
+
+    private static <V> V single(List<V> rows) {
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.usermgmt.service;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 审计日志存储中的一条记录，JSON 输出见 {@link AuditEntrySerializer}
+ */
+@JsonSerialize(using = AuditEntrySerializer.class)
+public record AuditEntry(long id, long timestamp, Long userId, String username, String actionType,
+                         String actionDetails, String ipAddress, String userAgent) {
+
+    public LocalDateTime createdAt() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.usermgmt.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 审计日志的 JSON 输出：id、userId、username、actionType、actionDetails、ipAddress、userAgent、createdAt
+ *
+ * 字段名预先编码，createdAt 由毫秒时间戳直接写成 ISO 本地时间（与 ISO_LOCAL_DATE_TIME 相同：
+ * 毫秒为 0 时省略小数部分，否则去掉末尾的 0），每条记录不再构造 Map 和 LocalDateTime。
+ */
+public class AuditEntrySerializer extends StdSerializer<AuditEntry> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString USER_ID = new SerializedString("userId");
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString ACTION_TYPE = new SerializedString("actionType");
+    private static final SerializableString ACTION_DETAILS = new SerializedString("actionDetails");
+    private static final SerializableString IP_ADDRESS = new SerializedString("ipAddress");
+    private static final SerializableString USER_AGENT = new SerializedString("userAgent");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    public AuditEntrySerializer() {
+        super(AuditEntry.class);
+    }
+
+    @Override
+    public void serialize(AuditEntry entry, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(entry);
+        gen.writeFieldName(ID);
+        gen.writeNumber(entry.id());
+        gen.writeFieldName(USER_ID);
+        if (entry.userId() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(entry.userId());
+        }
+        writeString(gen, USERNAME, entry.username());
+        writeString(gen, ACTION_TYPE, entry.actionType());
+        writeString(gen, ACTION_DETAILS, entry.actionDetails());
+        writeString(gen, IP_ADDRESS, entry.ipAddress());
+        writeString(gen, USER_AGENT, entry.userAgent());
+        gen.writeFieldName(CREATED_AT);
+        writeLocalDateTime(gen, entry.timestamp());
+        gen.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    static void writeLocalDateTime(JsonGenerator gen, long timestamp) throws IOException {
+        int offsetSeconds = ZoneId.systemDefault().getRules().getOffset(Instant.ofEpochMilli(timestamp)).getTotalSeconds();
+        long local = timestamp + offsetSeconds * 1000L;
+        LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(local, MILLIS_PER_DAY));
+        if (date.getYear() < 1000 || date.getYear() > 9999) {
+            // 四位年份以外的格式有正负号等变化，交给标准格式化
+            gen.writeString(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault())
+                .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        int millisOfDay = (int) Math.floorMod(local, MILLIS_PER_DAY);
+        int millis = millisOfDay % 1000;
+        int seconds = millisOfDay / 1000;
+
+        char[] buffer = new char[23];
+        digits(buffer, 0, date.getYear(), 4);
+        buffer[4] = '-';
+        digits(buffer, 5, date.getMonthValue(), 2);
+        buffer[7] = '-';
+        digits(buffer, 8, date.getDayOfMonth(), 2);
+        buffer[10] = 'T';
+        digits(buffer, 11, seconds / 3600, 2);
+        buffer[13] = ':';
+        digits(buffer, 14, seconds / 60 % 60, 2);
+        buffer[16] = ':';
+        digits(buffer, 17, seconds % 60, 2);
+        int length = 19;
+        if (millis != 0) {
+            buffer[19] = '.';
+            digits(buffer, 20, millis, 3);
+            length = 23;
+            while (buffer[length - 1] == '0') {
+                length--;
+            }
+        }
+        gen.writeString(buffer, 0, length);
+    }
+
+    private static void digits(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.example.usermgmt.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 审计日志的一个归档，由一个过期的段压缩而成，写出后不再修改
+ *
+ * 数据文件（.seg.gz）由若干 gzip 成员首尾相接组成，每个成员是一块最多 block-entries 条记录，
+ * 记录格式与段文件相同，整个文件仍可直接用 zcat 解压。索引文件（.idx）记录每块在数据文件中的位置、
+ * 首条 id、时间范围和块内出现过的用户 id（超过 256 个时不记录，视为可能包含任意用户），
+ * 以及按天、按操作汇总的条数。索引常驻内存，读取时只解压需要的块。
+ * 索引文件最后写入，没有索引的数据文件视为未完成的归档。
+ */
+final class AuditLogArchive implements Closeable {
+
+    static final String DATA_SUFFIX = ".seg.gz";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x41554458;
+    private static final int VERSION = 1;
+    private static final int MAX_BLOCK_USERS = 256;
+
+    /**
+     * 某天（按系统时区，与汇总计数的天桶一致）某个操作的条数
+     */
+    record DailyCount(long epochDay, String actionType, long count) {}
+
+    private record Block(ByteBuffer buffer, int[] positions) {
+
+        AuditEntry read(int index) {
+            return AuditLogSegment.decode(buffer, positions[index]);
+        }
+    }
+
+    private final Path dataFile;
+    private final FileChannel channel;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final long[] firstIds;
+    private final int[] counts;
+    private final long[] firstTimestamps;
+    private final long[] lastTimestamps;
+    private final long[][] users;
+    private final List<DailyCount> dailyCounts;
+
+    private AuditLogArchive(Path dataFile, long[] offsets, int[] lengths, long[] firstIds, int[] counts,
+                            long[] firstTimestamps, long[] lastTimestamps, long[][] users,
+                            List<DailyCount> dailyCounts) throws IOException {
+        this.dataFile = dataFile;
+        this.channel = FileChannel.open(dataFile, StandardOpenOption.READ);
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.firstIds = firstIds;
+        this.counts = counts;
+        this.firstTimestamps = firstTimestamps;
+        this.lastTimestamps = lastTimestamps;
+        this.users = users;
+        this.dailyCounts = dailyCounts;
+    }
+
+    /**
+     * 把一个已写满的段压缩写入 directory，先写临时文件再改名，完成后两个文件都设为只读
+     */
+    static AuditLogArchive write(Path directory, AuditLogSegment segment, int blockEntries) throws IOException {
+        String name = String.format("%020d", segment.baseId());
+        Path data = directory.resolve(name + DATA_SUFFIX);
+        Path index = directory.resolve(name + INDEX_SUFFIX);
+        Path dataTemp = directory.resolve(name + DATA_SUFFIX + ".tmp");
+        Path indexTemp = directory.resolve(name + INDEX_SUFFIX + ".tmp");
+
+        int count = segment.count();
+        int blocks = (count + blockEntries - 1) / blockEntries;
+        Map<Long, Map<String, Long>> daily = new TreeMap<>();
+        try (FileOutputStream dataOut = new FileOutputStream(dataTemp.toFile());
+             FileOutputStream indexOut = new FileOutputStream(indexTemp.toFile())) {
+            DataOutputStream header = new DataOutputStream(new BufferedOutputStream(indexOut));
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(blocks);
+            ByteArrayOutputStream block = new ByteArrayOutputStream(1 << 20);
+            long offset = 0;
+            for (int b = 0; b < blocks; b++) {
+                int from = b * blockEntries;
+                int to = Math.min(count, from + blockEntries);
+                TreeSet<Long> blockUsers = new TreeSet<>();
+                long firstTimestamp = 0;
+                long lastTimestamp = 0;
+                block.reset();
+                try (OutputStream gzip = new GZIPOutputStream(block, 64 * 1024)) {
+                    for (int i = from; i < to; i++) {
+                        byte[] record = segment.record(i);
+                        gzip.write(record);
+                        AuditEntry entry = AuditLogSegment.decode(ByteBuffer.wrap(record), 0);
+                        if (i == from) {
+                            firstTimestamp = entry.timestamp();
+                        }
+                        lastTimestamp = entry.timestamp();
+                        if (entry.userId() != null && blockUsers.size() <= MAX_BLOCK_USERS) {
+                            blockUsers.add(entry.userId());
+                        }
+                        if (entry.actionType() != null) {
+                            daily.computeIfAbsent(AuditRollups.dayOf(entry.timestamp()), k -> new TreeMap<>())
+                                .merge(entry.actionType(), 1L, Long::sum);
+                        }
+                    }
+                }
+                block.writeTo(dataOut);
+                header.writeLong(offset);
+                header.writeInt(block.size());
+                header.writeLong(segment.baseId() + from);
+                header.writeInt(to - from);
+                header.writeLong(firstTimestamp);
+                header.writeLong(lastTimestamp);
+                if (blockUsers.size() > MAX_BLOCK_USERS) {
+                    header.writeInt(-1);
+                } else {
+                    header.writeInt(blockUsers.size());
+                    for (long userId : blockUsers) {
+                        header.writeLong(userId);
+                    }
+                }
+                offset += block.size();
+            }
+            header.writeInt(daily.values().stream().mapToInt(Map::size).sum());
+            for (Map.Entry<Long, Map<String, Long>> day : daily.entrySet()) {
+                for (Map.Entry<String, Long> action : day.getValue().entrySet()) {
+                    header.writeLong(day.getKey());
+                    header.writeUTF(action.getKey());
+                    header.writeLong(action.getValue());
+                }
+            }
+            header.flush();
+            dataOut.getFD().sync();
+            indexOut.getFD().sync();
+        }
+        Files.move(dataTemp, data, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTemp, index, StandardCopyOption.ATOMIC_MOVE);
+        data.toFile().setReadOnly();
+        index.toFile().setReadOnly();
+        return open(index);
+    }
+
+    /**
+     * 读取索引文件并打开对应的数据文件
+     */
+    static AuditLogArchive open(Path indexFile) throws IOException {
+        String name = indexFile.getFileName().toString();
+        Path dataFile = indexFile.resolveSibling(name.substring(0, name.length() - INDEX_SUFFIX.length()) + DATA_SUFFIX);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("不是可识别的审计日志归档索引: " + indexFile);
+            }
+            int blocks = in.readInt();
+            long[] offsets = new long[blocks];
+            int[] lengths = new int[blocks];
+            long[] firstIds = new long[blocks];
+            int[] counts = new int[blocks];
+            long[] firstTimestamps = new long[blocks];
+            long[] lastTimestamps = new long[blocks];
+            long[][] users = new long[blocks][];
+            for (int b = 0; b < blocks; b++) {
+                offsets[b] = in.readLong();
+                lengths[b] = in.readInt();
+                firstIds[b] = in.readLong();
+                counts[b] = in.readInt();
+                firstTimestamps[b] = in.readLong();
+                lastTimestamps[b] = in.readLong();
+                int userCount = in.readInt();
+                if (userCount >= 0) {
+                    users[b] = new long[userCount];
+                    for (int i = 0; i < userCount; i++) {
+                        users[b][i] = in.readLong();
+                    }
+                }
+            }
+            int dailyCount = in.readInt();
+            List<DailyCount> daily = new ArrayList<>(dailyCount);
+            for (int i = 0; i < dailyCount; i++) {
+                daily.add(new DailyCount(in.readLong(), in.readUTF(), in.readLong()));
+            }
+            if (blocks == 0) {
+                throw new IOException("审计日志归档为空: " + indexFile);
+            }
+            return new AuditLogArchive(dataFile, offsets, lengths, firstIds, counts,
+                firstTimestamps, lastTimestamps, users, List.copyOf(daily));
+        }
+    }
+
+    static boolean isIndexFile(Path file) {
+        return file.getFileName().toString().endsWith(INDEX_SUFFIX);
+    }
+
+    long firstId() {
+        return firstIds[0];
+    }
+
+    long lastId() {
+        int last = firstIds.length - 1;
+        return firstIds[last] + counts[last] - 1;
+    }
+
+    long firstTimestamp() {
+        return firstTimestamps[0];
+    }
+
+    long lastTimestamp() {
+        return lastTimestamps[lastTimestamps.length - 1];
+    }
+
+    List<DailyCount> dailyCounts() {
+        return dailyCounts;
+    }
+
+    /**
+     * 第一条时间戳不早于 timestamp 的记录 id，全部更早时返回 lastId + 1；
+     * 按块的时间范围二分，最多解压一个块
+     */
+    long firstIdAtOrAfter(long timestamp) {
+        int low = 0;
+        int high = lastTimestamps.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lastTimestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == lastTimestamps.length) {
+            return lastId() + 1;
+        }
+        if (firstTimestamps[low] >= timestamp) {
+            return firstIds[low];
+        }
+        Block block = block(low);
+        int index = 0;
+        while (block.read(index).timestamp() < timestamp) {
+            index++;
+        }
+        return firstIds[low] + index;
+    }
+
+    AuditEntry read(long id) {
+        int b = blockOf(id);
+        return block(b).read((int) (id - firstIds[b]));
+    }
+
+    /**
+     * 从 startId 开始倒序遍历；指定 userId 时跳过索引表明不含该用户的块，
+     * 其余块中其他用户的记录仍会返回，由调用方过滤
+     */
+    Iterator<AuditEntry> newestFirst(long startId, Long userId) {
+        long start = Math.min(startId, lastId());
+        return new Iterator<>() {
+            private int blockIndex = start < firstId() ? -1 : blockOf(start);
+            private int index = blockIndex < 0 ? -1 : (int) (start - firstIds[blockIndex]);
+            private Block current;
+
+            @Override
+            public boolean hasNext() {
+                while (blockIndex >= 0) {
+                    if (index >= 0 && (userId == null || mayContain(blockIndex, userId))) {
+                        return true;
+                    }
+                    blockIndex--;
+                    current = null;
+                    if (blockIndex >= 0) {
+                        index = counts[blockIndex] - 1;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public AuditEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (current == null) {
+                    current = block(blockIndex);
+                }
+                return current.read(index--);
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return dataFile.toString();
+    }
+
+    private boolean mayContain(int block, long userId) {
+        return users[block] == null || Arrays.binarySearch(users[block], userId) >= 0;
+    }
+
+    private int blockOf(long id) {
+        int low = 0;
+        int high = firstIds.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (firstIds[mid] <= id) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private Block block(int b) {
+        try {
+            ByteBuffer compressed = ByteBuffer.allocate(lengths[b]);
+            while (compressed.hasRemaining()) {
+                if (channel.read(compressed, offsets[b] + compressed.position()) < 0) {
+                    throw new IOException("审计日志归档文件不完整: " + dataFile);
+                }
+            }
+            byte[] records;
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.array()), 64 * 1024)) {
+                records = in.readAllBytes();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(records);
+            int[] positions = new int[counts[b]];
+            int position = 0;
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = position;
+                position += buffer.getInt(position);
+            }
+            return new Block(buffer, positions);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取审计日志归档失败: " + dataFile, e);
+        }
+    }
+}
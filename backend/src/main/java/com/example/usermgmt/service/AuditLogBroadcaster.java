@@ -0,0 +1,219 @@
+package com.example.usermgmt.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 审计日志实时推送（SSE）
+ *
+ * 作为 {@link AuditLogStore} 的一个监听器，每条新日志在追加线程上只分发一次：按各订阅者的过滤条件
+ * 放入其有界缓冲区，不做任何 IO。每个订阅者由自己的 audit-log-stream 线程按顺序发送，
+ * 客户端不读数据时阻塞的只是它自己的发送线程，不影响其他订阅者。缓冲区满说明客户端消费不过来，直接断开；
+ * 客户端带 Last-Event-ID 重连后从存储补发断开期间的记录，断开不会丢数据。
+ * 订阅名额在发送线程退出后才归还，发送线程数不会超过 max-subscribers。
+ */
+@Slf4j
+@Component
+public class AuditLogBroadcaster {
+
+    public static final String EVENT_NAME = "audit-log";
+
+    // 发送线程空闲时检查订阅是否已断开的间隔
+    private static final long IDLE_CHECK_MILLIS = 1000;
+
+    private final AuditLogStore auditLogStore;
+    private final int bufferSize;
+    private final int replayLimit;
+    private final long timeoutMillis;
+    private final long reconnectMillis;
+    private final Semaphore slots;
+    private final AtomicInteger threadSequence = new AtomicInteger();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public AuditLogBroadcaster(AuditLogStore auditLogStore,
+                               @Value("${audit.stream.buffer-size:256}") int bufferSize,
+                               @Value("${audit.stream.replay-limit:1000}") int replayLimit,
+                               @Value("${audit.stream.max-subscribers:200}") int maxSubscribers,
+                               @Value("${audit.stream.timeout-ms:1800000}") long timeoutMillis,
+                               @Value("${audit.stream.reconnect-ms:3000}") long reconnectMillis) {
+        this.auditLogStore = auditLogStore;
+        this.bufferSize = bufferSize;
+        this.replayLimit = replayLimit;
+        this.timeoutMillis = timeoutMillis;
+        this.reconnectMillis = reconnectMillis;
+        this.slots = new Semaphore(maxSubscribers);
+        auditLogStore.subscribe(this::publish);
+    }
+
+    /**
+     * 注册订阅者；lastEventId 不为空时先补发 id 大于它的记录，最多 replay-limit 条。
+     * 订阅数已达上限时抛出 IllegalStateException
+     */
+    public SseEmitter subscribe(Predicate<AuditEntry> filter, Long lastEventId) throws IOException {
+        if (!slots.tryAcquire()) {
+            throw new IllegalStateException("实时日志订阅数已达上限");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, filter);
+        emitter.onCompletion(subscriber::detach);
+        emitter.onError(error -> subscriber.detach());
+        // 超时后客户端按 reconnect-ms 带 Last-Event-ID 重连
+        emitter.onTimeout(subscriber::detach);
+        subscribers.add(subscriber);
+        // 先加入订阅者再取最后一条 id：之后追加的记录一定进入缓冲区，不大于它的由补发负责
+        try {
+            subscriber.start(lastEventId, auditLogStore.size());
+        } catch (IOException | RuntimeException e) {
+            subscriber.detach();
+            slots.release();
+            throw e;
+        }
+        return emitter;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("published", published.sum());
+        stats.put("sent", sent.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("evicted", evicted.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.detach();
+        }
+    }
+
+    private void publish(AuditEntry entry) {
+        published.increment();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(entry);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Predicate<AuditEntry> filter;
+        private final BlockingQueue<AuditEntry> buffer = new ArrayBlockingQueue<>(bufferSize);
+
+        private volatile boolean closed;
+        // 只在 start 中写入一次，之后由发送线程读取
+        private long boundary;
+        private long replayAfter;
+
+        Subscriber(SseEmitter emitter, Predicate<AuditEntry> filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+
+        void start(Long lastEventId, long boundary) throws IOException {
+            this.boundary = boundary;
+            this.replayAfter = lastEventId == null ? boundary
+                : Math.min(boundary, Math.max(lastEventId, boundary - replayLimit));
+            // 先发一条注释让响应头立即发出，并告知客户端重连间隔
+            emitter.send(SseEmitter.event().comment("connected").reconnectTime(reconnectMillis));
+            Thread thread = new Thread(this::run, "audit-log-stream-" + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * 在追加线程上调用，不能阻塞
+         */
+        void offer(AuditEntry entry) {
+            if (closed || filter != null && !filter.test(entry)) {
+                return;
+            }
+            if (!buffer.offer(entry)) {
+                evicted.increment();
+                log.warn("实时日志订阅者消费过慢，缓冲区已满（{} 条），断开连接", bufferSize);
+                detach();
+            }
+        }
+
+        /**
+         * 只做标记，结束响应由发送线程完成：它可能正阻塞在写响应上，调用方不能等它
+         */
+        void detach() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        private void run() {
+            try {
+                if (replayAfter < boundary) {
+                    replay();
+                }
+                while (!closed) {
+                    AuditEntry entry = buffer.poll(IDLE_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                    // 订阅前已追加、通知晚到的记录已由补发覆盖或本就不需要
+                    if (entry != null && !closed && entry.id() > boundary) {
+                        send(entry);
+                    }
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // 客户端已断开或响应已结束
+                detach();
+            } catch (InterruptedException e) {
+                detach();
+                emitter.complete();
+            } finally {
+                slots.release();
+            }
+        }
+
+        private void replay() throws IOException {
+            List<AuditEntry> missed = auditLogStore
+                .streamRange(new AuditLogStore.IdRange(replayAfter + 1, boundary), boundary + 1)
+                .filter(entry -> filter == null || filter.test(entry))
+                .collect(Collectors.toList());
+            Collections.reverse(missed);
+            for (AuditEntry entry : missed) {
+                if (closed) {
+                    return;
+                }
+                send(entry);
+            }
+            replayed.add(missed.size());
+        }
+
+        private void send(AuditEntry entry) throws IOException {
+            emitter.send(SseEmitter.event()
+                .id(Long.toString(entry.id()))
+                .name(EVENT_NAME)
+                .data(entry, MediaType.APPLICATION_JSON));
+            sent.increment();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.usermgmt.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 审计日志流式导出
+ *
+ * 逐条从存储中读取并直接写到输出流，内存占用只与缓冲区大小有关，与导出行数无关。
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditLogExporter {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int FLUSH_EVERY = 1000;
+
+    private final ObjectMapper objectMapper;
+
+    public void export(Stream<AuditEntry> entries, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == Format.CSV) {
+            writer.write("ID,用户名,操作类型,操作详情,IP地址,时间\n");
+        }
+        // NDJSON 用同一个生成器逐条写入缓冲区：根值之间不加默认的空格分隔符，由换行分隔；
+        // 生成器的 flush 不传递到底层流，何时推给客户端仍由 FLUSH_EVERY 控制
+        JsonGenerator json = null;
+        if (format == Format.NDJSON) {
+            json = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                .setRootValueSeparator(null);
+        }
+        int rows = 0;
+        for (Iterator<AuditEntry> it = entries.iterator(); it.hasNext(); ) {
+            AuditEntry entry = it.next();
+            if (format == Format.CSV) {
+                writeCsv(writer, entry);
+            } else {
+                objectMapper.writeValue(json, entry);
+                json.writeRaw('\n');
+            }
+            // 定期把缓冲区推到客户端，避免大量数据堆积在响应缓冲里
+            if (++rows % FLUSH_EVERY == 0) {
+                flush(json, writer);
+            }
+        }
+        flush(json, writer);
+    }
+
+    private static void flush(JsonGenerator json, Writer writer) throws IOException {
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    private static void writeCsv(Writer writer, AuditEntry entry) throws IOException {
+        writer.write(Long.toString(entry.id()));
+        writer.write(',');
+        writeCsvField(writer, entry.username());
+        writer.write(',');
+        writeCsvField(writer, entry.actionType());
+        writer.write(',');
+        writeCsvField(writer, entry.actionDetails());
+        writer.write(',');
+        writeCsvField(writer, entry.ipAddress());
+        writer.write(',');
+        writer.write(entry.createdAt().toString());
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
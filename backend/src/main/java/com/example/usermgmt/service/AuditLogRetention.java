@@ -0,0 +1,147 @@
+package com.example.usermgmt.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 审计日志保留期
+ *
+ * 后台线程每隔 interval-ms 把早于 max-age-days 的段压缩成归档（{@link AuditLogStore#archiveOlderThan}），
+ * 再分批删除 audit_logs 表中已归档的行，每批一条 DELETE，避免长事务和大范围锁。
+ * 归档的记录仍可按日期范围查询和导出，见 {@link AuditLogStore}。
+ */
+@Slf4j
+@Component
+public class AuditLogRetention implements SmartLifecycle {
+
+    private static final String DELETE_SQL = "DELETE FROM audit_logs WHERE timestamp < ? LIMIT ?";
+
+    private final AuditLogStore auditLogStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final ResourceVersions resourceVersions;
+    private final boolean enabled;
+    private final long maxAgeMillis;
+    private final long intervalMillis;
+    private final int deleteBatchSize;
+
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder rowsDeleted = new LongAdder();
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AuditLogRetention(AuditLogStore auditLogStore, JdbcTemplate jdbcTemplate, ResourceVersions resourceVersions,
+                             @Value("${audit.retention.enabled:true}") boolean enabled,
+                             @Value("${audit.retention.max-age-days:90}") long maxAgeDays,
+                             @Value("${audit.retention.interval-ms:3600000}") long intervalMillis,
+                             @Value("${audit.retention.delete-batch-size:5000}") int deleteBatchSize) {
+        this.auditLogStore = auditLogStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.resourceVersions = resourceVersions;
+        this.enabled = enabled;
+        this.maxAgeMillis = Duration.ofDays(maxAgeDays).toMillis();
+        this.intervalMillis = intervalMillis;
+        this.deleteBatchSize = deleteBatchSize;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("archives", auditLogStore.archiveCount());
+        stats.put("archived", archived.sum());
+        stats.put("rowsDeleted", rowsDeleted.sum());
+        stats.put("runs", runs.sum());
+        stats.put("failures", failures.sum());
+        return stats;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "audit-log-retention");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        // 启动后先执行一次，停机较久后重启时不必等满一个周期
+        while (running) {
+            runOnce();
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void runOnce() {
+        long cutoff = System.currentTimeMillis() - maxAgeMillis;
+        try {
+            long count = auditLogStore.archiveOlderThan(cutoff);
+            if (count > 0) {
+                archived.add(count);
+                // 不带开始日期的查询只覆盖热数据，归档后结果随之变化
+                resourceVersions.bump(ResourceVersions.Resource.AUDIT_LOGS);
+                log.info("已归档 {} 条审计日志，归档文件 {} 个", count, auditLogStore.archiveCount());
+            }
+            deleteArchivedRows(Math.min(cutoff, auditLogStore.archivedBefore()));
+        } catch (Exception e) {
+            // 下个周期重试；归档和删除都可以重复执行
+            failures.increment();
+            log.error("审计日志归档失败", e);
+        } finally {
+            runs.increment();
+        }
+    }
+
+    /**
+     * 数据库中只删除时间早于 boundary 的行，这些行在存储中都已归档
+     */
+    private void deleteArchivedRows(long boundary) {
+        if (boundary == Long.MIN_VALUE) {
+            return;
+        }
+        Timestamp before = Timestamp.valueOf(LocalDateTime.ofInstant(Instant.ofEpochMilli(boundary), ZoneId.systemDefault()));
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(DELETE_SQL, before, deleteBatchSize);
+            rowsDeleted.add(deleted);
+        } while (running && deleted == deleteBatchSize);
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.usermgmt.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 审计日志的一个段文件，固定大小并整体映射到内存
+ *
+ * 记录格式：[int 长度][long id][long 时间戳][long userId][字符串字段...]，
+ * 字符串为 [int 字节数][UTF-8]，-1 表示 null。长度字段最后写入，作为记录的提交标记，
+ * 重启时从头扫描到长度为 0 的位置即可恢复。
+ * 每条记录的时间戳另存一份在内存数组中，时间戳单调不减，可按时间二分定位。
+ *
+ * 只允许一个线程追加（由 {@link AuditLogStore} 的追加锁保证）；读线程通过 volatile 的 count
+ * 看到已完整写入的记录，并用绝对位置读取，不需要加锁。
+ */
+final class AuditLogSegment implements Closeable {
+
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES * 3;
+    private static final String SUFFIX = ".seg";
+
+    private final Path file;
+    private final long baseId;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private volatile int[] positions = new int[1024];
+    private volatile long[] timestamps = new long[1024];
+    private volatile int count;
+    private volatile long firstTimestamp;
+    private volatile long lastTimestamp;
+    private int writePosition;
+
+    private AuditLogSegment(Path file, long baseId, int capacity) throws IOException {
+        this.file = file;
+        this.baseId = baseId;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    static AuditLogSegment create(Path directory, long baseId, int capacity) throws IOException {
+        return new AuditLogSegment(directory.resolve(String.format("%020d%s", baseId, SUFFIX)), baseId, capacity);
+    }
+
+    /**
+     * 打开已有段文件并扫描出所有已提交的记录
+     */
+    static AuditLogSegment open(Path file, int capacity) throws IOException {
+        String name = file.getFileName().toString();
+        long baseId = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        int size = (int) Math.max(capacity, Files.size(file));
+        AuditLogSegment segment = new AuditLogSegment(file, baseId, size);
+        segment.recover();
+        return segment;
+    }
+
+    static boolean isSegmentFile(Path file) {
+        return file.getFileName().toString().endsWith(SUFFIX);
+    }
+
+    static byte[] encode(Long userId, String... fields) {
+        byte[][] encoded = new byte[fields.length][];
+        int size = Long.BYTES;
+        for (int i = 0; i < fields.length; i++) {
+            encoded[i] = fields[i] == null ? null : fields[i].getBytes(StandardCharsets.UTF_8);
+            size += Integer.BYTES + (encoded[i] == null ? 0 : encoded[i].length);
+        }
+        ByteBuffer body = ByteBuffer.allocate(size);
+        body.putLong(userId == null ? -1L : userId);
+        for (byte[] field : encoded) {
+            body.putInt(field == null ? -1 : field.length);
+            if (field != null) {
+                body.put(field);
+            }
+        }
+        return body.array();
+    }
+
+    /**
+     * 追加一条记录，剩余空间不足时返回 false
+     */
+    boolean append(long id, long timestamp, byte[] body) {
+        int length = HEADER_BYTES - Long.BYTES + body.length;
+        if (writePosition + length > buffer.capacity()) {
+            return false;
+        }
+        int position = writePosition;
+        buffer.putLong(position + Integer.BYTES, id);
+        buffer.putLong(position + Integer.BYTES + Long.BYTES, timestamp);
+        buffer.put(position + Integer.BYTES + Long.BYTES * 2, body);
+        buffer.putInt(position, length);
+        publish(position, timestamp);
+        writePosition = position + length;
+        return true;
+    }
+
+    AuditEntry read(int index) {
+        return decode(buffer, positions[index]);
+    }
+
+    /**
+     * 第 index 条记录的原始字节（含长度字段），归档时原样写出
+     */
+    byte[] record(int index) {
+        int position = positions[index];
+        byte[] record = new byte[buffer.getInt(position)];
+        buffer.get(position, record);
+        return record;
+    }
+
+    /**
+     * 解码 position 处的一条记录；归档块与段文件使用同一记录格式
+     */
+    static AuditEntry decode(ByteBuffer buffer, int position) {
+        position += Integer.BYTES;
+        long id = buffer.getLong(position);
+        long timestamp = buffer.getLong(position + Long.BYTES);
+        long userId = buffer.getLong(position + Long.BYTES * 2);
+        int[] cursor = {position + Long.BYTES * 3};
+        return new AuditEntry(id, timestamp, userId < 0 ? null : userId, readString(buffer, cursor),
+            readString(buffer, cursor), readString(buffer, cursor), readString(buffer, cursor), readString(buffer, cursor));
+    }
+
+    /**
+     * 第一个时间戳不早于 timestamp 的记录下标，全部更早时返回 count
+     */
+    int firstIndexAtOrAfter(long timestamp) {
+        int low = 0;
+        int high = count;
+        long[] times = timestamps;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    long baseId() {
+        return baseId;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long firstTimestamp() {
+        return firstTimestamp;
+    }
+
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * 关闭并删除段文件；已映射的内存在回收前仍可读，持有旧快照的读线程不受影响
+     */
+    void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+
+    private void recover() {
+        int position = 0;
+        while (position + Integer.BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + length > buffer.capacity()) {
+                break;
+            }
+            publish(position, buffer.getLong(position + Integer.BYTES + Long.BYTES));
+            position += length;
+        }
+        writePosition = position;
+    }
+
+    private void publish(int position, long timestamp) {
+        int index = count;
+        int[] current = positions;
+        long[] times = timestamps;
+        if (index == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            times = Arrays.copyOf(times, times.length * 2);
+            positions = current;
+            timestamps = times;
+        }
+        current[index] = position;
+        times[index] = timestamp;
+        if (index == 0) {
+            firstTimestamp = timestamp;
+        }
+        lastTimestamp = timestamp;
+        count = index + 1;
+    }
+
+    private static String readString(ByteBuffer buffer, int[] cursor) {
+        int length = buffer.getInt(cursor[0]);
+        cursor[0] += Integer.BYTES;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(cursor[0], bytes);
+        cursor[0] += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,464 @@
+package com.example.usermgmt.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 只追加的审计日志存储
+ *
+ * 日志按时间顺序写入一组内存映射的段文件，写满后滚动到新段。id 单调递增且连续，
+ * 时间戳单调不减，因此 id 顺序即时间顺序。追加只在段尾写入并在追加锁内完成；
+ * 读取从最新的段向前遍历，不加锁也不复制整个列表，只解码实际返回的记录。
+ *
+ * 过期的段由 {@link AuditLogRetention} 压缩成归档（见 {@link AuditLogArchive}）后从段列表中移除，
+ * 读取 id 或时间更早的记录时透明地转到归档。归档时先发布归档再移除段，
+ * 读取方先取段列表再取归档列表，两者可能短暂重叠，但不会漏掉记录。
+ */
+@Component
+public class AuditLogStore {
+
+    /**
+     * 闭区间 [first, last]，first > last 表示空区间
+     */
+    public record IdRange(long first, long last) {
+
+        public long count() {
+            return Math.max(0, last - first + 1);
+        }
+
+        /**
+         * 截掉 id 小于 min 的部分
+         */
+        public IdRange atLeast(long min) {
+            return new IdRange(Math.max(first, min), last);
+        }
+    }
+
+    private final Path directory;
+    private final Path archiveDirectory;
+    private final int segmentBytes;
+    private final int archiveBlockEntries;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock archiveLock = new ReentrantLock();
+
+    private final List<Consumer<AuditEntry>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile List<AuditLogSegment> segments;
+    private volatile List<AuditLogArchive> archives;
+    private volatile long lastId;
+    private long lastTimestamp;
+
+    public AuditLogStore(@Value("${audit.store.dir:data/audit-log}") String directory,
+                         @Value("${audit.store.segment-bytes:16777216}") int segmentBytes,
+                         @Value("${audit.archive.dir:${audit.store.dir:data/audit-log}/archive}") String archiveDirectory,
+                         @Value("${audit.archive.block-entries:4096}") int archiveBlockEntries) throws IOException {
+        this.directory = Paths.get(directory);
+        this.archiveDirectory = Paths.get(archiveDirectory);
+        this.segmentBytes = segmentBytes;
+        this.archiveBlockEntries = archiveBlockEntries;
+        Files.createDirectories(this.directory);
+        Files.createDirectories(this.archiveDirectory);
+
+        this.archives = List.copyOf(openArchives(this.archiveDirectory));
+        long archivedThrough = archives.isEmpty() ? 0 : archives.get(archives.size() - 1).lastId();
+        List<AuditLogSegment> recovered = new ArrayList<>();
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : files.filter(AuditLogSegment::isSegmentFile).sorted().collect(Collectors.toList())) {
+                AuditLogSegment segment = AuditLogSegment.open(file, segmentBytes);
+                // 归档完成后、删除段文件前退出时，段已有完整的归档
+                if (segment.count() > 0 && segment.baseId() + segment.count() - 1 <= archivedThrough) {
+                    segment.delete();
+                } else {
+                    recovered.add(segment);
+                }
+            }
+        }
+        if (recovered.isEmpty()) {
+            recovered.add(AuditLogSegment.create(this.directory, archivedThrough + 1, segmentBytes));
+        }
+        AuditLogSegment tail = recovered.get(recovered.size() - 1);
+        this.segments = List.copyOf(recovered);
+        this.lastId = tail.baseId() + tail.count() - 1;
+        this.lastTimestamp = tail.count() == 0 ? 0 : tail.lastTimestamp();
+    }
+
+    /**
+     * 追加一条日志，返回分配了 id 和时间戳的记录
+     */
+    public AuditEntry append(Long userId, String username, String actionType, String actionDetails,
+                             String ipAddress, String userAgent) {
+        return append(System.currentTimeMillis(), userId, username, actionType, actionDetails, ipAddress, userAgent);
+    }
+
+    /**
+     * 以指定时间追加，时间早于上一条时按上一条的时间记录以保持单调
+     */
+    public AuditEntry append(long timestamp, Long userId, String username, String actionType, String actionDetails,
+                             String ipAddress, String userAgent) {
+        // 编码在锁外完成，锁内只做分配 id 和内存拷贝
+        byte[] body = AuditLogSegment.encode(userId, username, actionType, actionDetails, ipAddress, userAgent);
+        AuditEntry entry;
+        appendLock.lock();
+        try {
+            long id = lastId + 1;
+            long time = Math.max(timestamp, lastTimestamp);
+            AuditLogSegment tail = segments.get(segments.size() - 1);
+            if (!tail.append(id, time, body)) {
+                if (tail.count() == 0) {
+                    throw new IllegalArgumentException("审计日志记录过大");
+                }
+                tail = roll(id);
+                if (!tail.append(id, time, body)) {
+                    throw new IllegalArgumentException("审计日志记录过大");
+                }
+            }
+            lastTimestamp = time;
+            lastId = id;
+            entry = new AuditEntry(id, time, userId, username, actionType, actionDetails, ipAddress, userAgent);
+            // 在锁内通知，监听器按 id 顺序收到记录
+            for (Consumer<AuditEntry> listener : listeners) {
+                listener.accept(entry);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        return entry;
+    }
+
+    /**
+     * 注册追加监听器，返回注册时刻的最后一条 id：
+     * 之后追加的记录都会通知监听器，调用方只需自行处理 id 不大于返回值的历史记录。
+     * 监听器在追加锁内按 id 顺序调用，不能阻塞
+     */
+    public long subscribe(Consumer<AuditEntry> listener) {
+        appendLock.lock();
+        try {
+            listeners.add(listener);
+            return lastId;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long size() {
+        return lastId;
+    }
+
+    public boolean isEmpty() {
+        return lastId == 0;
+    }
+
+    /**
+     * 时间范围 [fromMillis, toMillis) 内记录的 id 区间。
+     * 先按段的首条时间二分定位到段，再在段内按时间二分，不扫描范围外的记录。
+     */
+    public IdRange idRange(long fromMillis, long toMillis) {
+        List<AuditLogSegment> snapshot = segments;
+        List<AuditLogArchive> archived = archives;
+        long last = lastId;
+        return new IdRange(firstIdAtOrAfter(snapshot, archived, fromMillis, last),
+            firstIdAtOrAfter(snapshot, archived, toMillis, last) - 1);
+    }
+
+    /**
+     * 倒序遍历 id 区间内、id 小于 beforeId 的记录
+     */
+    public Stream<AuditEntry> streamRange(IdRange range, long beforeId) {
+        long upper = Math.min(beforeId - 1, range.last());
+        if (upper < range.first()) {
+            return Stream.empty();
+        }
+        return streamBefore(upper + 1).limit(upper - range.first() + 1);
+    }
+
+    /**
+     * 同上，只返回指定用户的记录；归档部分按索引跳过不含该用户的块
+     */
+    public Stream<AuditEntry> streamRange(IdRange range, long beforeId, long userId) {
+        long upper = Math.min(beforeId - 1, range.last());
+        if (upper < range.first()) {
+            return Stream.empty();
+        }
+        return newestFirst(upper + 1, userId)
+            .takeWhile(entry -> entry.id() >= range.first())
+            .filter(entry -> entry.userId() != null && entry.userId() == userId);
+    }
+
+    public Optional<AuditEntry> findById(long id) {
+        if (id < 1 || id > lastId) {
+            return Optional.empty();
+        }
+        List<AuditLogSegment> snapshot = segments;
+        List<AuditLogArchive> archived = archives;
+        if (id >= snapshot.get(0).baseId()) {
+            AuditLogSegment segment = snapshot.get(segmentIndexOf(snapshot, id));
+            return Optional.of(segment.read((int) (id - segment.baseId())));
+        }
+        return archived.stream()
+            .filter(archive -> archive.firstId() <= id && id <= archive.lastId())
+            .findFirst()
+            .map(archive -> archive.read(id));
+    }
+
+    /**
+     * 热数据（尚未归档的段）中最早的 id
+     */
+    public long firstHotId() {
+        return segments.get(0).baseId();
+    }
+
+    /**
+     * 从最新的记录开始倒序遍历
+     */
+    public Stream<AuditEntry> streamNewestFirst() {
+        return streamBefore(Long.MAX_VALUE);
+    }
+
+    /**
+     * 倒序遍历 id 小于 beforeId 的记录，按 id 直接定位到段内位置，早于热数据的部分从归档读取
+     */
+    public Stream<AuditEntry> streamBefore(long beforeId) {
+        return newestFirst(beforeId, null);
+    }
+
+    /**
+     * 把最后一条时间早于 cutoffMillis 的段压缩成归档并删除段文件，返回归档的记录数。
+     * 当前段整体过期时先滚动到新段；归档期间追加和读取照常进行。
+     */
+    public long archiveOlderThan(long cutoffMillis) throws IOException {
+        archiveLock.lock();
+        try {
+            appendLock.lock();
+            try {
+                AuditLogSegment tail = segments.get(segments.size() - 1);
+                if (tail.count() > 0 && tail.lastTimestamp() < cutoffMillis) {
+                    roll(lastId + 1);
+                }
+            } finally {
+                appendLock.unlock();
+            }
+            long archived = 0;
+            while (true) {
+                List<AuditLogSegment> snapshot = segments;
+                AuditLogSegment oldest = snapshot.get(0);
+                if (snapshot.size() == 1 || oldest.count() > 0 && oldest.lastTimestamp() >= cutoffMillis) {
+                    return archived;
+                }
+                if (oldest.count() > 0) {
+                    List<AuditLogArchive> updated = new ArrayList<>(archives);
+                    updated.add(AuditLogArchive.write(archiveDirectory, oldest, archiveBlockEntries));
+                    archives = List.copyOf(updated);
+                    archived += oldest.count();
+                }
+                appendLock.lock();
+                try {
+                    segments = List.copyOf(segments.subList(1, segments.size()));
+                } finally {
+                    appendLock.unlock();
+                }
+                oldest.delete();
+            }
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    /**
+     * 时间早于返回值的记录都已归档；没有归档时返回 Long.MIN_VALUE
+     */
+    public long archivedBefore() {
+        List<AuditLogSegment> snapshot = segments;
+        List<AuditLogArchive> archived = archives;
+        if (archived.isEmpty()) {
+            return Long.MIN_VALUE;
+        }
+        // 时间戳可以相等，热数据的第一条可能与归档的最后一条同一时刻，取不含边界的一侧
+        AuditLogSegment first = snapshot.get(0);
+        return first.count() > 0 ? first.firstTimestamp() : archived.get(archived.size() - 1).lastTimestamp();
+    }
+
+    public int archiveCount() {
+        return archives.size();
+    }
+
+    /**
+     * 补算 id 不大于 throughId 的历史记录：归档部分只提供索引中按天汇总的条数，不解压归档
+     */
+    void replay(long throughId, Consumer<AuditLogArchive.DailyCount> archivedCounts, Consumer<AuditEntry> hot) {
+        archiveLock.lock();
+        try {
+            long hotBase = segments.get(0).baseId();
+            for (AuditLogArchive archive : archives) {
+                archive.dailyCounts().forEach(archivedCounts);
+            }
+            newestFirst(throughId + 1, null).takeWhile(entry -> entry.id() >= hotBase).forEach(hot);
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    /**
+     * 倒序遍历 id 小于 beforeId 的记录：先遍历热数据的段，再按需逐个打开更早的归档。
+     * 指定 userId 时归档跳过不含该用户的块，但不过滤记录本身
+     */
+    private Stream<AuditEntry> newestFirst(long beforeId, Long userId) {
+        long start = Math.min(beforeId - 1, lastId);
+        if (start < 1) {
+            return Stream.empty();
+        }
+        // 先读段列表再读归档列表，见类注释
+        List<AuditLogSegment> snapshot = segments;
+        List<AuditLogArchive> archived = archives;
+        long hotBase = snapshot.get(0).baseId();
+        Stream<AuditEntry> hot = start >= hotBase ? stream(hotIterator(snapshot, start)) : Stream.empty();
+        long coldStart = Math.min(start, hotBase - 1);
+        if (archived.isEmpty() || coldStart < archived.get(0).firstId()) {
+            return hot;
+        }
+        Stream<AuditEntry> cold = IntStream.iterate(archived.size() - 1, i -> i >= 0, i -> i - 1)
+            .mapToObj(archived::get)
+            .filter(archive -> archive.firstId() <= coldStart)
+            .flatMap(archive -> stream(archive.newestFirst(coldStart, userId)));
+        return Stream.concat(hot, cold);
+    }
+
+    private static Iterator<AuditEntry> hotIterator(List<AuditLogSegment> snapshot, long start) {
+        return new Iterator<>() {
+            private int segmentIndex = segmentIndexOf(snapshot, start);
+            private int index = (int) (start - snapshot.get(segmentIndex).baseId());
+
+            @Override
+            public boolean hasNext() {
+                while (index < 0 && segmentIndex > 0) {
+                    segmentIndex--;
+                    index = snapshot.get(segmentIndex).count() - 1;
+                }
+                return index >= 0;
+            }
+
+            @Override
+            public AuditEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return snapshot.get(segmentIndex).read(index--);
+            }
+        };
+    }
+
+    private static Stream<AuditEntry> stream(Iterator<AuditEntry> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+            Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        archiveLock.lock();
+        appendLock.lock();
+        try {
+            for (AuditLogSegment segment : segments) {
+                segment.close();
+            }
+            for (AuditLogArchive archive : archives) {
+                archive.close();
+            }
+        } finally {
+            appendLock.unlock();
+            archiveLock.unlock();
+        }
+    }
+
+    /**
+     * 打开归档目录中的所有归档，清理上次退出时未完成的临时文件和缺少索引的数据文件
+     */
+    private static List<AuditLogArchive> openArchives(Path archiveDirectory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listed = Files.list(archiveDirectory)) {
+            files = listed.sorted().collect(Collectors.toList());
+        }
+        Set<String> names = files.stream().map(file -> file.getFileName().toString()).collect(Collectors.toSet());
+        List<AuditLogArchive> opened = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(".tmp")) {
+                Files.delete(file);
+            } else if (name.endsWith(AuditLogArchive.DATA_SUFFIX)) {
+                String base = name.substring(0, name.length() - AuditLogArchive.DATA_SUFFIX.length());
+                if (!names.contains(base + AuditLogArchive.INDEX_SUFFIX)) {
+                    Files.delete(file);
+                }
+            } else if (AuditLogArchive.isIndexFile(file)) {
+                opened.add(AuditLogArchive.open(file));
+            }
+        }
+        return opened;
+    }
+
+    private AuditLogSegment roll(long baseId) {
+        try {
+            AuditLogSegment previous = segments.get(segments.size() - 1);
+            previous.force();
+            AuditLogSegment next = AuditLogSegment.create(directory, baseId, segmentBytes);
+            List<AuditLogSegment> rolled = new ArrayList<>(segments);
+            rolled.add(next);
+            segments = List.copyOf(rolled);
+            return next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建审计日志段失败", e);
+        }
+    }
+
+    private static long firstIdAtOrAfter(List<AuditLogSegment> snapshot, List<AuditLogArchive> archived,
+                                         long timestamp, long last) {
+        // 早于热数据的时间点在归档中定位
+        for (AuditLogArchive archive : archived) {
+            if (timestamp <= archive.lastTimestamp()) {
+                return archive.firstIdAtOrAfter(timestamp);
+            }
+        }
+        // 找到最后一个首条时间早于 timestamp 的段，目标记录在该段内或下一段的开头
+        int low = 0;
+        int high = snapshot.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            AuditLogSegment segment = snapshot.get(mid);
+            if (segment.count() > 0 && segment.firstTimestamp() < timestamp) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        AuditLogSegment segment = snapshot.get(low);
+        long id = segment.baseId() + segment.firstIndexAtOrAfter(timestamp);
+        return Math.min(id, last + 1);
+    }
+
+    private static int segmentIndexOf(List<AuditLogSegment> snapshot, long id) {
+        int low = 0;
+        int high = snapshot.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (snapshot.get(mid).baseId() <= id) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
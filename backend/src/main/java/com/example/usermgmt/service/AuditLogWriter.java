@@ -0,0 +1,215 @@
+package com.example.usermgmt.service;
+
+import com.example.usermgmt.entity.AuditLog;
+import com.example.usermgmt.repository.AuditLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 审计日志异步批量落库
+ *
+ * 请求线程只把 {@link AuditEntry} 放入有界环形队列，后台线程攒够 batch-size 条或等待 linger-ms 后
+ * 经 {@link AuditDictionary} 换成字典编码，通过 {@link AuditLogRepository#saveAll} 在一个事务内批量写入
+ * （配合 hibernate.jdbc.batch_size）。
+ * 队列满时按 overflow-policy 处理：BLOCK 最多等待 block-timeout-ms，DROP 直接丢弃，两者都会计数。
+ * 应用关闭时停止接收新记录并把队列中剩余的记录全部写完。
+ */
+@Slf4j
+@Component
+public class AuditLogWriter implements SmartLifecycle {
+
+    public enum OverflowPolicy { BLOCK, DROP }
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditDictionary auditDictionary;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<AuditEntry> queue;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AuditLogWriter(AuditLogRepository auditLogRepository,
+                          AuditDictionary auditDictionary,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${audit.writer.capacity:8192}") int capacity,
+                          @Value("${audit.writer.batch-size:200}") int batchSize,
+                          @Value("${audit.writer.linger-ms:50}") long lingerMillis,
+                          @Value("${audit.writer.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+                          @Value("${audit.writer.block-timeout-ms:100}") long blockTimeoutMillis) {
+        this.auditLogRepository = auditLogRepository;
+        this.auditDictionary = auditDictionary;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+    }
+
+    /**
+     * 提交一条待写入的审计日志，队列已满且未能在限定时间内入队时返回 false
+     */
+    public boolean enqueue(AuditEntry entry) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        boolean accepted;
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                accepted = queue.offer(entry, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = queue.offer(entry);
+        }
+        if (accepted) {
+            enqueued.increment();
+        } else {
+            dropped.increment();
+        }
+        return accepted;
+    }
+
+    /**
+     * 队列深度、丢弃数和刷盘耗时等指标
+     */
+    public Map<String, Object> stats() {
+        long flushCount = flushes.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("written", written.sum());
+        stats.put("failed", failed.sum());
+        stats.put("flushes", flushCount);
+        stats.put("avgFlushMillis", flushCount == 0 ? 0.0 : flushNanos.sum() / 1e6 / flushCount);
+        stats.put("maxFlushMillis", maxFlushNanos.get() / 1e6);
+        return stats;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "audit-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 工作线程退出后兜底写完残留记录
+        List<AuditEntry> remaining = new ArrayList<>();
+        while (queue.drainTo(remaining, batchSize) > 0) {
+            flush(remaining);
+            remaining.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEntry first = queue.poll(lingerMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long waitNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || waitNanos <= 0 || !running) {
+                        break;
+                    }
+                    AuditEntry next = queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<AuditEntry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            // 字典编码在批量写入的事务之外解析，新值的插入不会拖长或回滚这个事务
+            List<AuditLog> rows = new ArrayList<>(batch.size());
+            for (AuditEntry entry : batch) {
+                rows.add(toEntity(entry));
+            }
+            transactionTemplate.executeWithoutResult(status -> auditLogRepository.saveAll(rows));
+            written.add(batch.size());
+        } catch (RuntimeException e) {
+            failed.add(batch.size());
+            log.error("审计日志批量写入失败，丢弃 {} 条记录", batch.size(), e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushes.increment();
+            flushNanos.add(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private AuditLog toEntity(AuditEntry entry) {
+        return AuditLog.builder()
+            .userId(entry.userId())
+            .actionId(auditDictionary.actionId(entry.actionType()))
+            .details(entry.actionDetails())
+            .ipAddressId(auditDictionary.ipAddressId(entry.ipAddress()))
+            .userAgentId(auditDictionary.userAgentId(entry.userAgent()))
+            .timestamp(entry.createdAt())
+            .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.usermgmt.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 审计日志汇总计数
+ *
+ * 每条日志写入时按操作类型累加到分钟、小时、天三级时间桶和总数中，
+ * 仪表板按时间范围统计时只读取对应的桶，不扫描审计日志本身。
+ * 分钟桶保留 2 天，小时桶保留 90 天，天桶长期保留。
+ * 启动时已归档的记录只从归档索引补算总数和天桶，归档的记录超过保留期，本就不在分钟桶和小时桶中。
+ */
+@Component
+public class AuditRollups {
+
+    public enum Granularity {
+        MINUTE(2 * 24 * 60),
+        HOUR(90 * 24),
+        DAY(Long.MAX_VALUE);
+
+        private final long retainedBuckets;
+
+        Granularity(long retainedBuckets) {
+            this.retainedBuckets = retainedBuckets;
+        }
+    }
+
+    private final Map<Granularity, NavigableMap<Long, Map<String, LongAdder>>> buckets = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> totals = new ConcurrentHashMap<>();
+
+    public AuditRollups(AuditLogStore auditLogStore) {
+        for (Granularity granularity : Granularity.values()) {
+            buckets.put(granularity, new ConcurrentSkipListMap<>());
+        }
+        // 先注册监听再补算历史记录，保证每条日志恰好计数一次
+        long existing = auditLogStore.subscribe(this::record);
+        auditLogStore.replay(existing, this::recordArchived, this::record);
+    }
+
+    public void record(AuditEntry entry) {
+        if (entry.actionType() == null) {
+            return;
+        }
+        totals.computeIfAbsent(entry.actionType(), k -> new LongAdder()).increment();
+        for (Granularity granularity : Granularity.values()) {
+            long bucket = bucketOf(granularity, entry.timestamp());
+            NavigableMap<Long, Map<String, LongAdder>> series = buckets.get(granularity);
+            Map<String, LongAdder> counters = series.get(bucket);
+            if (counters == null) {
+                counters = series.computeIfAbsent(bucket, k -> new ConcurrentHashMap<>());
+                // 新桶出现时顺带清理过期桶
+                if (granularity.retainedBuckets != Long.MAX_VALUE) {
+                    series.headMap(bucket - granularity.retainedBuckets).clear();
+                }
+            }
+            counters.computeIfAbsent(entry.actionType(), k -> new LongAdder()).increment();
+        }
+    }
+
+    private void recordArchived(AuditLogArchive.DailyCount count) {
+        totals.computeIfAbsent(count.actionType(), k -> new LongAdder()).add(count.count());
+        buckets.get(Granularity.DAY).computeIfAbsent(count.epochDay(), k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(count.actionType(), k -> new LongAdder()).add(count.count());
+    }
+
+    public long total(String actionType) {
+        LongAdder adder = totals.get(actionType);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * 指定操作在某一天的次数
+     */
+    public long countOnDay(String actionType, LocalDate day) {
+        return count(Granularity.DAY, day.toEpochDay(), actionType);
+    }
+
+    /**
+     * 指定操作在 [fromMillis, toMillis) 内的次数，按桶边界向下对齐
+     */
+    public long count(String actionType, Granularity granularity, long fromMillis, long toMillis) {
+        long from = bucketOf(granularity, fromMillis);
+        long to = bucketOf(granularity, toMillis);
+        long sum = 0;
+        for (Map<String, LongAdder> counters : buckets.get(granularity).subMap(from, true, to, false).values()) {
+            LongAdder adder = counters.get(actionType);
+            sum += adder == null ? 0 : adder.sum();
+        }
+        return sum;
+    }
+
+    private long count(Granularity granularity, long bucket, String actionType) {
+        Map<String, LongAdder> counters = buckets.get(granularity).get(bucket);
+        LongAdder adder = counters == null ? null : counters.get(actionType);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private static long bucketOf(Granularity granularity, long millis) {
+        return switch (granularity) {
+            case MINUTE -> Math.floorDiv(millis, 60_000L);
+            case HOUR -> Math.floorDiv(millis, 3_600_000L);
+            case DAY -> dayOf(millis);
+        };
+    }
+
+    /**
+     * 天桶编号：系统时区下的日期
+     */
+    static long dayOf(long millis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()).toEpochDay();
+    }
+}
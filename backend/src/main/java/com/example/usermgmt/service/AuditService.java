@@ -0,0 +1,25 @@
+package com.example.usermgmt.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * 审计日志写入入口
+ *
+ * 先追加到 {@link AuditLogStore} 供查询立即可见，再交给 {@link AuditLogWriter} 异步批量落库，
+ * 请求线程不等待数据库 INSERT。
+ */
+@Service
+@RequiredArgsConstructor
+public class AuditService {
+
+    private final AuditLogStore auditLogStore;
+    private final AuditLogWriter auditLogWriter;
+
+    public AuditEntry record(Long userId, String username, String actionType, String actionDetails,
+                             String ipAddress, String userAgent) {
+        AuditEntry entry = auditLogStore.append(userId, username, actionType, actionDetails, ipAddress, userAgent);
+        auditLogWriter.enqueue(entry);
+        return entry;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.usermgmt.service;
+
+import com.example.usermgmt.dto.DashboardStats;
+import com.example.usermgmt.entity.AuditLog;
+import com.example.usermgmt.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * 仪表板统计
+ *
+ * 所有数字都来自增量维护的计数器（{@link UserStore} 的角色/状态计数和 {@link AuditRollups} 的时间桶），
+ * 读取成本与用户数和审计日志条数无关，登录趋势的成本只与天数有关。
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    private static final DateTimeFormatter TREND_FORMAT = DateTimeFormatter.ofPattern("MM-dd");
+
+    private final UserStore userStore;
+    private final AuditRollups auditRollups;
+
+    public DashboardStats getDashboardStats(int trendDays) {
+        LocalDate today = LocalDate.now();
+        Map<String, Long> roleCounts = userStore.countByRole();
+        Map<String, Long> statusCounts = userStore.countByStatus();
+
+        // 登录趋势数据（按天）
+        List<DashboardStats.LoginTrend> loginTrends = new ArrayList<>(trendDays);
+        for (int i = trendDays - 1; i >= 0; i--) {
+            LocalDate day = today.minusDays(i);
+            loginTrends.add(new DashboardStats.LoginTrend(day.format(TREND_FORMAT),
+                auditRollups.countOnDay(AuditLog.Actions.LOGIN, day)));
+        }
+
+        // 用户角色分布
+        List<DashboardStats.RoleCount> usersByRole = new ArrayList<>();
+        for (User.UserRole role : User.UserRole.values()) {
+            usersByRole.add(new DashboardStats.RoleCount(role.name(), roleCounts.getOrDefault(role.name(), 0L)));
+        }
+
+        // 用户状态分布
+        List<DashboardStats.StatusCount> usersByStatus = new ArrayList<>();
+        for (User.UserStatus status : User.UserStatus.values()) {
+            usersByStatus.add(new DashboardStats.StatusCount(status.name(),
+                statusCounts.getOrDefault(status.name(), 0L)));
+        }
+
+        return new DashboardStats(
+            userStore.size(),
+            statusCounts.getOrDefault(User.UserStatus.ACTIVE.name(), 0L),
+            userStore.countCreatedOn(today),
+            auditRollups.total(AuditLog.Actions.LOGIN),
+            loginTrends,
+            usersByRole,
+            usersByStatus);
+    }
+}
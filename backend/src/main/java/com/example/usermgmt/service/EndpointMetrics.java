@@ -0,0 +1,57 @@
+package com.example.usermgmt.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按控制器方法统计请求延迟
+ *
+ * 以处理方法的 {@link Method} 对象为键（每次请求都是同一个实例），
+ * 首次请求时登记端点名称和 URI 模板，之后的记录只有一次哈希查找和直方图的原子自增。
+ */
+@Component
+public class EndpointMetrics {
+
+    private static final String CONTROLLER_PACKAGE = "com.example.usermgmt.controller";
+
+    public record Endpoint(String name, String method, String uri, LatencyHistogram latency) {
+    }
+
+    // 非本项目控制器（如 Swagger 接口）登记为该占位，不做统计
+    private static final Endpoint IGNORED = new Endpoint("", "", "", null);
+
+    private final Map<Method, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public void record(HandlerMethod handler, HttpServletRequest request, long nanos) {
+        Endpoint endpoint = endpoints.get(handler.getMethod());
+        if (endpoint == null) {
+            endpoint = endpoints.computeIfAbsent(handler.getMethod(), method -> register(handler, request));
+        }
+        if (endpoint.latency() != null) {
+            endpoint.latency().recordNanos(nanos);
+        }
+    }
+
+    public Collection<Endpoint> endpoints() {
+        return endpoints.values().stream().filter(e -> e.latency() != null).toList();
+    }
+
+    private static Endpoint register(HandlerMethod handler, HttpServletRequest request) {
+        if (!handler.getBeanType().getPackageName().equals(CONTROLLER_PACKAGE)) {
+            return IGNORED;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return new Endpoint(
+            handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName(),
+            request.getMethod(),
+            pattern == null ? request.getRequestURI() : pattern.toString(),
+            new LatencyHistogram());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.usermgmt.service;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 连接池指标：Hikari 在获取、归还连接时回调，按连接池分别记录获取等待时间、连接占用时间和获取超时次数
+ */
+@Component
+public class HikariMetrics implements MetricsTrackerFactory {
+
+    public record Pool(String name, PoolStats stats, LatencyHistogram acquire, LatencyHistogram usage,
+                       LongAdder timeouts) {
+    }
+
+    private final Map<String, Pool> pools = new ConcurrentSkipListMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Pool pool = new Pool(poolName, poolStats, new LatencyHistogram(), new LatencyHistogram(), new LongAdder());
+        pools.put(poolName, pool);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                pool.acquire().recordNanos(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                pool.usage().record(elapsedBorrowedMillis * 1000);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                pool.timeouts().increment();
+            }
+        };
+    }
+
+    /**
+     * 已启动的连接池，按名称排序；连接池在第一次获取连接时才启动
+     */
+    public Collection<Pool> pools() {
+        return pools.values();
+    }
+}
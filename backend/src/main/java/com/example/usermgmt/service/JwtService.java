@@ -0,0 +1,146 @@
+package com.example.usermgmt.service;
+
+import com.example.usermgmt.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JWT 签发与校验
+ *
+ * 校验通过的令牌按 SHA-256 摘要缓存其声明，缓存项随令牌一起过期；
+ * 同一令牌的后续请求只需计算摘要并查表，不再重复验签和解析 JSON。
+ * 缓存中不保存令牌原文，条目数有上限。
+ * 用户被锁定或停用后已签发的令牌随即失效：缓存项带有用户状态的快照和当时的用户数据版本，
+ * 版本变化后重新从 {@link UserStore} 读取状态。
+ */
+@Component
+public class JwtService {
+
+    /**
+     * 已校验令牌中的声明
+     */
+    public record VerifiedToken(String username, String role, long expiresAt) {
+
+        public boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private record CachedToken(VerifiedToken token, boolean active, long usersVersion) {}
+
+    private final SecretKey key;
+    private final long expirationMillis;
+    private final int cacheMaxEntries;
+    private final JwtParser parser;
+    private final UserStore userStore;
+    private final ResourceVersions resourceVersions;
+    private final Map<String, CachedToken> verified = new ConcurrentHashMap<>();
+
+    public JwtService(UserStore userStore, ResourceVersions resourceVersions,
+                      @Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration}") long expirationMillis,
+                      @Value("${jwt.cache.max-entries:10000}") int cacheMaxEntries) {
+        this.userStore = userStore;
+        this.resourceVersions = resourceVersions;
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.expirationMillis = expirationMillis;
+        this.cacheMaxEntries = cacheMaxEntries;
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+    }
+
+    public String issue(String username, String role) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+            .setSubject(username)
+            .claim("role", role)
+            .setIssuedAt(new Date(now))
+            .setExpiration(new Date(now + expirationMillis))
+            .signWith(key)
+            .compact();
+    }
+
+    /**
+     * 校验令牌，签名无效、已过期或用户不再是 ACTIVE 状态时返回空
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        long now = System.currentTimeMillis();
+        String digest = digest(token);
+        // 先取版本再读状态，读取期间状态又变化时版本不同，下次请求会重新读取
+        long usersVersion = resourceVersions.version(ResourceVersions.Resource.USERS);
+        CachedToken cached = verified.get(digest);
+        if (cached != null) {
+            if (cached.token().isExpired(now)) {
+                verified.remove(digest, cached);
+                return Optional.empty();
+            }
+            if (cached.usersVersion() != usersVersion) {
+                cached = new CachedToken(cached.token(), isActive(cached.token().username()), usersVersion);
+                verified.put(digest, cached);
+            }
+            return cached.active() ? Optional.of(cached.token()) : Optional.empty();
+        }
+
+        VerifiedToken parsed;
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            parsed = new VerifiedToken(claims.getSubject(), claims.get("role", String.class),
+                claims.getExpiration().getTime());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (verified.size() >= cacheMaxEntries) {
+            evict(now);
+        }
+        boolean active = isActive(parsed.username());
+        verified.put(digest, new CachedToken(parsed, active, usersVersion));
+        return active ? Optional.of(parsed) : Optional.empty();
+    }
+
+    public int cachedTokens() {
+        return verified.size();
+    }
+
+    private void evict(long now) {
+        // 先清理过期项，仍然超限时随机淘汰一部分，淘汰的令牌下次请求时重新验签即可
+        verified.values().removeIf(cached -> cached.token().isExpired(now));
+        Iterator<String> it = verified.keySet().iterator();
+        while (verified.size() >= cacheMaxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private boolean isActive(String username) {
+        return userStore.findByUsername(username)
+            .map(user -> User.UserStatus.ACTIVE.name().equals(user.status()))
+            .orElse(false);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.usermgmt.service;
+
+import com.example.usermgmt.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 最后登录时间合并写回
+ *
+ * 登录只把时间记入内存中的并发 Map，同一用户只保留最新的一次；后台线程每隔 flush-interval-ms
+ * 把积攒的记录用一条 JDBC 批量 UPDATE 写入 users 表，并一次性同步到 {@link UserStore}。
+ * 登录高峰时不再逐次更新同一批热点行。尚未写回的时间由 {@link #merge} 合并到读取结果中，
+ * 应用关闭时写完剩余记录。用户列表的版本号只在同步到 {@link UserStore} 时递增一次，
+ * 条件请求看到的最后登录时间最多滞后一个写回周期。
+ */
+@Slf4j
+@Component
+public class LastLoginRecorder implements SmartLifecycle {
+
+    private static final String UPDATE_SQL = "UPDATE users SET last_login_at = ? WHERE username = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserStore userStore;
+    private final long flushIntervalMillis;
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             EntityManagerFactory entityManagerFactory, UserStore userStore,
+                             @Value("${users.last-login.flush-interval-ms:5000}") long flushIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.userStore = userStore;
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    /**
+     * 记录一次登录，只改内存
+     */
+    public void record(String username, LocalDateTime loginTime) {
+        pending.merge(username, loginTime, (current, next) -> next.isAfter(current) ? next : current);
+        recorded.increment();
+    }
+
+    public Optional<LocalDateTime> pendingLastLogin(String username) {
+        return Optional.ofNullable(pending.get(username));
+    }
+
+    /**
+     * 用户快照中的 lastLogin 早于未写回的登录时间时，返回替换后的副本，否则原样返回
+     */
+    public UserEntry merge(UserEntry user) {
+        if (pending.isEmpty()) {
+            return user;
+        }
+        LocalDateTime loginTime = pending.get(user.username());
+        if (loginTime == null) {
+            return user;
+        }
+        String formatted = UserStore.format(loginTime);
+        // 同为 ISO 格式，按字符串比较即按时间比较
+        if (user.lastLogin() != null && user.lastLogin().compareTo(formatted) >= 0) {
+            return user;
+        }
+        return user.withLastLogin(formatted);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("recorded", recorded.sum());
+        stats.put("written", written.sum());
+        stats.put("failed", failed.sum());
+        stats.put("flushes", flushes.sum());
+        return stats;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "last-login-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(flushIntervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            flush();
+        }
+    }
+
+    private synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, LocalDateTime> batch = new HashMap<>(pending);
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        batch.forEach((username, loginTime) -> rows.add(new Object[]{Timestamp.valueOf(loginTime), username}));
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, rows));
+            written.add(batch.size());
+            // JDBC 直接更新绕过了 Hibernate，只清掉这批用户缓存的 User 实体；查询缓存里只有是否存在的结果，不受影响
+            org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+            for (String username : batch.keySet()) {
+                userStore.findByUsername(username).ifPresent(user -> cache.evictEntityData(User.class, user.id()));
+            }
+        } catch (RuntimeException e) {
+            // 与审计日志写入一致，失败时不重试；内存中的用户数据照常更新，下次登录会再写一次
+            failed.add(batch.size());
+            log.error("最后登录时间批量写入失败，涉及 {} 个用户", batch.size(), e);
+        } finally {
+            flushes.increment();
+        }
+        // 先同步到用户存储再移除，读取方任何时刻都能看到最新时间；期间又有新登录的用户保留在 pending 中
+        userStore.recordLastLogins(batch);
+        batch.forEach(pending::remove);
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.usermgmt.service;
+
+import com.zaxxer.hikari.metrics.PoolStats;
+import jakarta.persistence.EntityManagerFactory;
+import com.example.usermgmt.config.ReadWriteRoutingDataSource;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * 以 Prometheus 文本格式（0.0.4）输出接口延迟、连接池、Hibernate、后台队列以及启动耗时的指标
+ */
+@Component
+@RequiredArgsConstructor
+public class MetricsExporter {
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private final EndpointMetrics endpointMetrics;
+    private final HikariMetrics hikariMetrics;
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditLogWriter auditLogWriter;
+    private final PasswordHasher passwordHasher;
+    private final LastLoginRecorder lastLoginRecorder;
+    private final AuditLogRetention auditLogRetention;
+    private final AuditLogBroadcaster auditLogBroadcaster;
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+    private final StartupReport startupReport;
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(8 * 1024);
+        writeEndpoints(out);
+        writePool(out);
+        writeHibernate(out);
+        writeBackgroundQueues(out);
+        writeStartup(out);
+        return out.toString();
+    }
+
+    private void writeEndpoints(StringBuilder out) {
+        String name = "http_server_requests_seconds";
+        header(out, name, "summary", "接口请求耗时");
+        for (EndpointMetrics.Endpoint endpoint : endpointMetrics.endpoints()) {
+            String labels = "endpoint=\"" + endpoint.name() + "\",method=\"" + endpoint.method()
+                + "\",uri=\"" + escape(endpoint.uri()) + "\"";
+            summary(out, name, labels, endpoint.latency());
+        }
+        header(out, name + "_max", "gauge", "接口请求最大耗时");
+        for (EndpointMetrics.Endpoint endpoint : endpointMetrics.endpoints()) {
+            String labels = "endpoint=\"" + endpoint.name() + "\",method=\"" + endpoint.method()
+                + "\",uri=\"" + escape(endpoint.uri()) + "\"";
+            sample(out, name + "_max", labels, seconds(endpoint.latency().maxMicros()));
+        }
+    }
+
+    private void writePool(StringBuilder out) {
+        Collection<HikariMetrics.Pool> pools = hikariMetrics.pools();
+        poolGauge(out, pools, "hikaricp_connections_active", "正在使用的连接数", PoolStats::getActiveConnections);
+        poolGauge(out, pools, "hikaricp_connections_idle", "空闲连接数", PoolStats::getIdleConnections);
+        poolGauge(out, pools, "hikaricp_connections", "连接总数", PoolStats::getTotalConnections);
+        poolGauge(out, pools, "hikaricp_connections_max", "最大连接数", PoolStats::getMaxConnections);
+        poolGauge(out, pools, "hikaricp_connections_pending", "等待获取连接的线程数", PoolStats::getPendingThreads);
+        header(out, "hikaricp_connections_acquire_seconds", "summary", "获取连接的等待时间");
+        for (HikariMetrics.Pool pool : pools) {
+            summary(out, "hikaricp_connections_acquire_seconds", poolLabel(pool), pool.acquire());
+        }
+        header(out, "hikaricp_connections_usage_seconds", "summary", "连接从借出到归还的时间");
+        for (HikariMetrics.Pool pool : pools) {
+            summary(out, "hikaricp_connections_usage_seconds", poolLabel(pool), pool.usage());
+        }
+        header(out, "hikaricp_connections_timeout_total", "counter", "获取连接超时次数");
+        for (HikariMetrics.Pool pool : pools) {
+            sample(out, "hikaricp_connections_timeout_total", poolLabel(pool), pool.timeouts().sum());
+        }
+
+        // 未配置从库时没有读写分离数据源
+        ReadWriteRoutingDataSource routing = routingDataSource.getIfAvailable();
+        if (routing != null) {
+            Map<String, Object> stats = routing.stats();
+            header(out, "datasource_routing_connections_total", "counter", "按目标库统计的取连接次数");
+            sample(out, "datasource_routing_connections_total", "target=\"primary\"", number(stats.get("primaryConnections")));
+            sample(out, "datasource_routing_connections_total", "target=\"replica\"", number(stats.get("replicaConnections")));
+            counter(out, "datasource_routing_sticky_reads_total", "写后粘滞改走主库的只读事务数", number(stats.get("stickyReads")));
+            counter(out, "datasource_routing_fallbacks_total", "从库不可用回退主库的次数", number(stats.get("fallbacks")));
+            gauge(out, "datasource_replica_available", "从库是否可用", Boolean.TRUE.equals(stats.get("replicaAvailable")) ? 1 : 0);
+        }
+    }
+
+    private static void poolGauge(StringBuilder out, Collection<HikariMetrics.Pool> pools, String name, String help,
+                                  ToIntFunction<PoolStats> value) {
+        header(out, name, "gauge", help);
+        for (HikariMetrics.Pool pool : pools) {
+            sample(out, name, poolLabel(pool), value.applyAsInt(pool.stats()));
+        }
+    }
+
+    private static String regionLabel(String region) {
+        return "region=\"" + escape(region) + "\"";
+    }
+
+    private static String poolLabel(HikariMetrics.Pool pool) {
+        return "pool=\"" + escape(pool.name()) + "\"";
+    }
+
+    private void writeHibernate(StringBuilder out) {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!stats.isStatisticsEnabled()) {
+            return;
+        }
+        counter(out, "hibernate_statements_prepared_total", "预编译的 SQL 语句数", stats.getPrepareStatementCount());
+        counter(out, "hibernate_queries_executed_total", "执行的 HQL/SQL 查询数", stats.getQueryExecutionCount());
+        counter(out, "hibernate_entities_loaded_total", "加载的实体数", stats.getEntityLoadCount());
+        counter(out, "hibernate_entities_inserted_total", "插入的实体数", stats.getEntityInsertCount());
+        counter(out, "hibernate_entities_updated_total", "更新的实体数", stats.getEntityUpdateCount());
+        counter(out, "hibernate_transactions_total", "事务数", stats.getTransactionCount());
+        counter(out, "hibernate_second_level_cache_hits_total", "二级缓存命中数", stats.getSecondLevelCacheHitCount());
+        counter(out, "hibernate_second_level_cache_misses_total", "二级缓存未命中数", stats.getSecondLevelCacheMissCount());
+        gauge(out, "hibernate_second_level_cache_hit_ratio", "二级缓存命中率",
+            ratio(stats.getSecondLevelCacheHitCount(), stats.getSecondLevelCacheMissCount()));
+        counter(out, "hibernate_query_cache_hits_total", "查询缓存命中数", stats.getQueryCacheHitCount());
+        counter(out, "hibernate_query_cache_misses_total", "查询缓存未命中数", stats.getQueryCacheMissCount());
+        gauge(out, "hibernate_query_cache_hit_ratio", "查询缓存命中率",
+            ratio(stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount()));
+
+        String[] regions = stats.getSecondLevelCacheRegionNames();
+        header(out, "hibernate_cache_region_hits_total", "counter", "按缓存区域统计的命中数");
+        for (String region : regions) {
+            sample(out, "hibernate_cache_region_hits_total", regionLabel(region),
+                stats.getCacheRegionStatistics(region).getHitCount());
+        }
+        header(out, "hibernate_cache_region_misses_total", "counter", "按缓存区域统计的未命中数");
+        for (String region : regions) {
+            sample(out, "hibernate_cache_region_misses_total", regionLabel(region),
+                stats.getCacheRegionStatistics(region).getMissCount());
+        }
+        header(out, "hibernate_cache_region_puts_total", "counter", "按缓存区域统计的写入数");
+        for (String region : regions) {
+            sample(out, "hibernate_cache_region_puts_total", regionLabel(region),
+                stats.getCacheRegionStatistics(region).getPutCount());
+        }
+    }
+
+    private void writeBackgroundQueues(StringBuilder out) {
+        Map<String, Object> writer = auditLogWriter.stats();
+        gauge(out, "audit_writer_queue_depth", "审计日志写入队列长度", number(writer.get("queueDepth")));
+        counter(out, "audit_writer_written_total", "已写入数据库的审计日志数", number(writer.get("written")));
+        counter(out, "audit_writer_dropped_total", "队列满时丢弃的审计日志数", number(writer.get("dropped")));
+        counter(out, "audit_writer_failed_total", "写入失败的审计日志数", number(writer.get("failed")));
+
+        Map<String, Object> hasher = passwordHasher.stats();
+        gauge(out, "password_hasher_active", "正在执行的密码哈希任务数", number(hasher.get("active")));
+        gauge(out, "password_hasher_queue_depth", "排队中的密码哈希任务数", number(hasher.get("queueDepth")));
+        counter(out, "password_hasher_rejected_total", "因队列已满被拒绝的任务数", number(hasher.get("rejected")));
+
+        Map<String, Object> lastLogin = lastLoginRecorder.stats();
+        gauge(out, "last_login_pending", "尚未写回的最后登录时间数", number(lastLogin.get("pending")));
+        counter(out, "last_login_written_total", "已批量写回数据库的最后登录时间数", number(lastLogin.get("written")));
+        counter(out, "last_login_failed_total", "写回失败的最后登录时间数", number(lastLogin.get("failed")));
+
+        Map<String, Object> retention = auditLogRetention.stats();
+        gauge(out, "audit_archive_files", "审计日志归档文件数", number(retention.get("archives")));
+        counter(out, "audit_archived_entries_total", "已压缩归档的审计日志数", number(retention.get("archived")));
+        counter(out, "audit_retention_rows_deleted_total", "归档后从数据库删除的审计日志行数", number(retention.get("rowsDeleted")));
+        counter(out, "audit_retention_failures_total", "归档或删除失败的次数", number(retention.get("failures")));
+
+        Map<String, Object> stream = auditLogBroadcaster.stats();
+        gauge(out, "audit_stream_subscribers", "实时日志订阅者数", number(stream.get("subscribers")));
+        counter(out, "audit_stream_events_sent_total", "推送给订阅者的日志事件数", number(stream.get("sent")));
+        counter(out, "audit_stream_events_replayed_total", "重连时补发的日志事件数", number(stream.get("replayed")));
+        counter(out, "audit_stream_evictions_total", "因消费过慢被断开的订阅者数", number(stream.get("evicted")));
+    }
+
+    private void writeStartup(StringBuilder out) {
+        startupReport.report().ifPresent(report -> {
+            gauge(out, "application_started_time_seconds", "上下文刷新完成的耗时", report.startedMillis() / 1000.0);
+            gauge(out, "application_ready_time_seconds", "应用就绪的耗时", report.readyMillis() / 1000.0);
+            gauge(out, "jvm_ready_time_seconds", "JVM 启动至应用就绪的耗时", report.jvmReadyMillis() / 1000.0);
+        });
+    }
+
+    private static void summary(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (double quantile : QUANTILES) {
+            sample(out, name, prefix + "quantile=\"" + quantile + "\"", seconds(histogram.percentile(quantile)));
+        }
+        sample(out, name + "_sum", labels, seconds(histogram.sumMicros()));
+        sample(out, name + "_count", labels, histogram.count());
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, double value) {
+        header(out, name, "gauge", help);
+        sample(out, name, "", value);
+    }
+
+    private static void counter(StringBuilder out, String name, String help, double value) {
+        header(out, name, "counter", help);
+        sample(out, name, "", value);
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static double seconds(long micros) {
+        return micros / 1_000_000.0;
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number n ? n.doubleValue() : 0;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.usermgmt.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 密码哈希线程池
+ *
+ * BCrypt 计算刻意很慢，放在请求线程上执行时一波登录就能占满 Tomcat 线程。
+ * 这里用独立的固定线程池和有界队列执行所有哈希与校验，队列满时立即抛出
+ * {@link RejectedExecutionException}，由调用方返回 429，不让其他接口跟着排队。
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    // 批量导入使用单独的线程池，不占用登录的队列；队列满时由导入线程自己计算，大批量导入不会无限堆积任务
+    private final ThreadPoolExecutor bulkExecutor;
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${password.hasher.threads:0}") int threads,
+                          @Value("${password.hasher.queue-capacity:64}") int queueCapacity,
+                          @Value("${password.hasher.bulk-queue-capacity:256}") int bulkQueueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> {
+                Thread thread = new Thread(r, "password-hasher-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            (r, pool) -> {
+                rejected.increment();
+                throw new RejectedExecutionException("密码哈希队列已满");
+            });
+        AtomicInteger bulkSequence = new AtomicInteger();
+        int bulkPoolSize = Runtime.getRuntime().availableProcessors();
+        this.bulkExecutor = new ThreadPoolExecutor(bulkPoolSize, bulkPoolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(bulkQueueCapacity),
+            r -> {
+                Thread thread = new Thread(r, "password-hasher-bulk-" + bulkSequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            // 不用 CallerRunsPolicy：线程池关闭后它会丢弃任务，等待结果的导入线程就再也等不到
+            (r, pool) -> r.run());
+    }
+
+    /**
+     * 在哈希线程池中计算密码哈希，队列已满时抛出 RejectedExecutionException
+     */
+    public CompletableFuture<String> hash(String rawPassword) {
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor);
+    }
+
+    /**
+     * 在哈希线程池中校验密码，队列已满时抛出 RejectedExecutionException
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.matches(rawPassword, encodedPassword), executor);
+    }
+
+    /**
+     * 并行计算一批密码的哈希，结果与输入一一对应；输入为 null 的位置结果也为 null
+     */
+    public List<String> hashAll(List<String> rawPasswords) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(rawPasswords.size());
+        for (String raw : rawPasswords) {
+            futures.add(raw == null
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.supplyAsync(() -> passwordEncoder.encode(raw), bulkExecutor));
+        }
+        List<String> hashes = new ArrayList<>(futures.size());
+        for (CompletableFuture<String> future : futures) {
+            hashes.add(future.join());
+        }
+        return hashes;
+    }
+
+    /**
+     * 已存哈希的成本低于当前校准的成本时需要重新哈希；成本只升不降，不会因换到较慢的机器而削弱已有哈希
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+            "threads", executor.getMaximumPoolSize(),
+            "active", executor.getActiveCount(),
+            "queueDepth", executor.getQueue().size(),
+            "completed", executor.getCompletedTaskCount(),
+            "rejected", rejected.sum()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        bulkExecutor.shutdown();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.usermgmt.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 资源数据版本号
+ *
+ * 每次写操作递增对应资源的版本号，GET 接口用版本号生成 ETag；
+ * 客户端带 If-None-Match 且版本未变时直接返回 304，不查询数据也不序列化响应。
+ * ETag 中带上启动时间，避免重启后版本号从头计数与旧 ETag 冲突。
+ */
+@Component
+public class ResourceVersions {
+
+    public enum Resource { USERS, AUDIT_LOGS, PROFILE }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Resource, AtomicLong> versions = new EnumMap<>(Resource.class);
+
+    public ResourceVersions(AuditLogStore auditLogStore) {
+        for (Resource resource : Resource.values()) {
+            versions.put(resource, new AtomicLong());
+        }
+        auditLogStore.subscribe(entry -> bump(Resource.AUDIT_LOGS));
+    }
+
+    public void bump(Resource resource) {
+        versions.get(resource).incrementAndGet();
+    }
+
+    public long version(Resource resource) {
+        return versions.get(resource).get();
+    }
+
+    /**
+     * 由若干资源的当前版本组合出 ETag，extra 用于区分与数据版本无关的因素（如当前日期）
+     */
+    public String etag(Object extra, Resource... resources) {
+        StringBuilder etag = new StringBuilder("\"").append(epoch);
+        for (Resource resource : resources) {
+            etag.append('-').append(version(resource));
+        }
+        if (extra != null) {
+            etag.append('-').append(extra);
+        }
+        return etag.append('"').toString();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.usermgmt.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 启动耗时报告
+ *
+ * 应用以 {@link BufferingApplicationStartup} 启动时，就绪后汇总启动时间线：各顶层阶段的耗时，
+ * 以及自身初始化耗时（扣除其依赖的 bean）最长的若干个 bean，打印到日志并由 /metrics/startup 返回。
+ * 汇总后清空缓冲，延迟初始化的 bean 不计入。其他方式启动（如基准测试）时只有总耗时。
+ */
+@Slf4j
+@Component
+public class StartupReport {
+
+    private static final String BEAN_INSTANTIATE = "spring.beans.instantiate";
+
+    public record Phase(String name, long millis) {
+    }
+
+    public record BeanTiming(String bean, long totalMillis, long selfMillis) {
+    }
+
+    /**
+     * startedMillis、readyMillis 从 SpringApplication.run 开始计时，jvmReadyMillis 从 JVM 启动开始计时
+     */
+    public record Report(String version, long startedMillis, long readyMillis, long jvmReadyMillis,
+                         List<Phase> phases, List<BeanTiming> slowestBeans) {
+    }
+
+    private final ApplicationStartup applicationStartup;
+    private final int top;
+    private volatile Duration startedTime;
+    private volatile Report report;
+
+    public StartupReport(ApplicationStartup applicationStartup, @Value("${startup.report.top:15}") int top) {
+        this.applicationStartup = applicationStartup;
+        this.top = top;
+    }
+
+    @EventListener
+    public void onStarted(ApplicationStartedEvent event) {
+        startedTime = event.getTimeTaken();
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        long jvmReadyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        List<Phase> phases = List.of();
+        List<BeanTiming> slowestBeans = List.of();
+        if (applicationStartup instanceof BufferingApplicationStartup buffering) {
+            StartupTimeline timeline = buffering.drainBufferedTimeline();
+            phases = phases(timeline);
+            slowestBeans = slowestBeans(timeline);
+        }
+        Report current = new Report(version(), millis(startedTime), millis(event.getTimeTaken()), jvmReadyMillis,
+            phases, slowestBeans);
+        report = current;
+
+        StringBuilder message = new StringBuilder()
+            .append("启动完成：就绪耗时 ").append(current.readyMillis()).append(" ms，JVM 启动至就绪 ")
+            .append(jvmReadyMillis).append(" ms，版本 ").append(current.version());
+        for (Phase phase : phases) {
+            message.append("\n  阶段 ").append(phase.name()).append(": ").append(phase.millis()).append(" ms");
+        }
+        for (BeanTiming bean : slowestBeans) {
+            message.append("\n  bean ").append(bean.bean()).append(": 自身 ").append(bean.selfMillis())
+                .append(" ms，含依赖 ").append(bean.totalMillis()).append(" ms");
+        }
+        log.info(message.toString());
+    }
+
+    /**
+     * 最近一次启动的报告，应用就绪前为 empty
+     */
+    public Optional<Report> report() {
+        return Optional.ofNullable(report);
+    }
+
+    private static List<Phase> phases(StartupTimeline timeline) {
+        // 延迟初始化的 bean 在上下文刷新之后创建，也没有父步骤，不算作阶段
+        List<Phase> phases = new ArrayList<>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            StartupStep step = event.getStartupStep();
+            if (step.getParentId() == null && !BEAN_INSTANTIATE.equals(step.getName())) {
+                phases.add(new Phase(step.getName(), event.getDuration().toMillis()));
+            }
+        }
+        return phases;
+    }
+
+    private List<BeanTiming> slowestBeans(StartupTimeline timeline) {
+        // 自身耗时 = 总耗时 - 直接子步骤（依赖的 bean、后处理等）的耗时
+        Map<Long, Long> childNanos = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            Long parentId = event.getStartupStep().getParentId();
+            if (parentId != null) {
+                childNanos.merge(parentId, event.getDuration().toNanos(), Long::sum);
+            }
+        }
+        Map<String, long[]> byBean = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            StartupStep step = event.getStartupStep();
+            if (!BEAN_INSTANTIATE.equals(step.getName())) {
+                continue;
+            }
+            String bean = beanName(step);
+            long total = event.getDuration().toNanos();
+            long self = Math.max(0, total - childNanos.getOrDefault(step.getId(), 0L));
+            long[] timing = byBean.computeIfAbsent(bean, k -> new long[2]);
+            timing[0] += total;
+            timing[1] += self;
+        }
+        return byBean.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[1]).reversed())
+            .limit(top)
+            .map(e -> new BeanTiming(e.getKey(), e.getValue()[0] / 1_000_000, e.getValue()[1] / 1_000_000))
+            .toList();
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+
+    private static long millis(Duration duration) {
+        return duration == null ? 0 : duration.toMillis();
+    }
+
+    private static String version() {
+        String version = StartupReport.class.getPackage().getImplementationVersion();
+        return version != null ? version : "dev";
+    }
+}
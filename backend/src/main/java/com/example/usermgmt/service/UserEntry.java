@@ -0,0 +1,55 @@
+package com.example.usermgmt.service;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 用户存储中的一条记录（不可变快照），接口直接序列化返回，不再逐个复制成 Map；
+ * 时间字段为 ISO 格式字符串，密码哈希不在其中
+ */
+public record UserEntry(long id, String username, String firstName, String lastName, String role, String email,
+                        String status, String lastLogin, String createdAt, String updatedAt) {
+
+    /**
+     * 可修改字段按名称取值，名称不是 firstName、lastName、email、role、status 时抛出 IllegalArgumentException
+     */
+    public Object field(String name) {
+        return switch (name) {
+            case "firstName" -> firstName;
+            case "lastName" -> lastName;
+            case "email" -> email;
+            case "role" -> role;
+            case "status" -> status;
+            default -> throw new IllegalArgumentException("不支持修改的字段: " + name);
+        };
+    }
+
+    /**
+     * changes 中的字段是否都已是目标值
+     */
+    public boolean matches(Map<String, Object> changes) {
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            if (!Objects.equals(field(change.getKey()), change.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 应用 changes 中的字段并更新 updatedAt，返回新的快照
+     */
+    public UserEntry with(Map<String, Object> changes, String updatedAt) {
+        return new UserEntry(id, username,
+            (String) changes.getOrDefault("firstName", firstName),
+            (String) changes.getOrDefault("lastName", lastName),
+            (String) changes.getOrDefault("role", role),
+            (String) changes.getOrDefault("email", email),
+            (String) changes.getOrDefault("status", status),
+            lastLogin, createdAt, updatedAt);
+    }
+
+    public UserEntry withLastLogin(String lastLogin) {
+        return new UserEntry(id, username, firstName, lastName, role, email, status, lastLogin, createdAt, updatedAt);
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.usermgmt.service;
+
+import com.example.usermgmt.entity.User;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * 批量导入用户
+ *
+ * 边读请求体边解析（CSV 或 NDJSON），每攒够一批就处理一批：按 {@link User} 上的约束校验，
+ * 对整批的用户名和邮箱做一次集合查重，并行计算密码哈希，再整批写入。
+ * 内存占用与批大小和结果报告有关，与请求体大小无关。
+ */
+@Component
+public class UserImporter {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[abxy]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final int MIN_PASSWORD_LENGTH = 6;
+
+    private final UserStore userStore;
+    private final PasswordHasher passwordHasher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxRows;
+
+    public UserImporter(UserStore userStore, PasswordHasher passwordHasher, ObjectMapper objectMapper,
+                        Validator validator,
+                        @Value("${users.import.batch-size:1000}") int batchSize,
+                        @Value("${users.import.max-rows:200000}") int maxRows) {
+        this.userStore = userStore;
+        this.passwordHasher = passwordHasher;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * 导入并返回逐行结果；行号从 1 开始，不含 CSV 表头
+     */
+    public Map<String, Object> importUsers(InputStream in, Format format) throws IOException {
+        Iterator<Map<String, String>> rows = format == Format.CSV ? csvRows(in) : ndjsonRows(in);
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<Row> batch = new ArrayList<>(batchSize);
+        int rowNumber = 0;
+        String message = null;
+        try {
+            while (rows.hasNext()) {
+                Map<String, String> fields = rows.next();
+                if (rowNumber >= maxRows) {
+                    message = "超过单次导入上限 " + maxRows + " 行，之后的行未处理";
+                    break;
+                }
+                batch.add(new Row(++rowNumber, fields));
+                if (batch.size() == batchSize) {
+                    importBatch(batch, results);
+                    batch.clear();
+                }
+            }
+            importBatch(batch, results);
+        } catch (UncheckedIOException e) {
+            // 之前的批次已经写入，报告中保留它们的结果
+            message = "第 " + (rowNumber + 1) + " 行数据格式错误，之后的行未处理: " + e.getCause().getMessage();
+        }
+
+        long created = results.stream().filter(r -> "created".equals(r.get("status"))).count();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("status", message == null ? "success" : "error");
+        report.put("total", results.size());
+        report.put("created", created);
+        report.put("failed", results.size() - created);
+        if (message != null) {
+            report.put("message", message);
+        }
+        report.put("results", results);
+        return report;
+    }
+
+    private void importBatch(List<Row> batch, List<Map<String, Object>> results) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Integer, String> errors = new HashMap<>();
+        for (Row row : batch) {
+            String error = validate(row);
+            if (error != null) {
+                errors.put(row.number(), error);
+            }
+        }
+
+        // 批内查重，再对整批做一次已占用检查
+        Set<String> batchUsernames = new HashSet<>();
+        Set<String> batchEmails = new HashSet<>();
+        for (Row row : batch) {
+            if (errors.containsKey(row.number())) {
+                continue;
+            }
+            if (!batchUsernames.add(row.username())) {
+                errors.put(row.number(), "用户名在导入数据中重复");
+            } else if (row.email() != null && !batchEmails.add(row.email().toLowerCase(Locale.ROOT))) {
+                errors.put(row.number(), "邮箱在导入数据中重复");
+            }
+        }
+        Set<String> takenUsernames = userStore.existingUsernames(batchUsernames);
+        Set<String> takenEmails = userStore.existingEmails(batch.stream()
+            .filter(row -> !errors.containsKey(row.number()) && row.email() != null)
+            .map(Row::email)
+            .toList());
+
+        List<Row> accepted = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            if (errors.containsKey(row.number())) {
+                continue;
+            }
+            if (takenUsernames.contains(row.username())) {
+                errors.put(row.number(), "用户名已存在");
+            } else if (row.email() != null && takenEmails.contains(row.email())) {
+                errors.put(row.number(), "邮箱已存在");
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        List<String> hashes = passwordHasher.hashAll(accepted.stream().map(Row::password).toList());
+        List<UserStore.NewUser> newUsers = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            Row row = accepted.get(i);
+            String hash = hashes.get(i) != null ? hashes.get(i) : row.passwordHash();
+            newUsers.add(new UserStore.NewUser(row.username(), row.get("firstName"), row.get("lastName"),
+                row.role(), row.email(), hash));
+        }
+        List<UserStore.CreateResult> created = userStore.createAll(newUsers);
+
+        Map<Integer, UserStore.CreateResult> createdByRow = new HashMap<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            createdByRow.put(accepted.get(i).number(), created.get(i));
+        }
+        for (Row row : batch) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("row", row.number());
+            result.put("username", row.username());
+            UserStore.CreateResult createResult = createdByRow.get(row.number());
+            if (createResult != null && createResult.user() != null) {
+                result.put("status", "created");
+                result.put("id", createResult.user().id());
+            } else {
+                result.put("status", "error");
+                result.put("message", createResult != null ? createResult.error() : errors.get(row.number()));
+            }
+            results.add(result);
+        }
+    }
+
+    private String validate(Row row) {
+        String error = firstViolation("username", row.username());
+        if (error == null) {
+            error = firstViolation("email", row.email());
+        }
+        if (error != null) {
+            return error;
+        }
+        try {
+            User.UserRole.valueOf(row.role());
+        } catch (IllegalArgumentException e) {
+            return "无效的角色: " + row.role();
+        }
+        if (row.password() != null && row.password().length() < MIN_PASSWORD_LENGTH) {
+            return "密码长度不能少于" + MIN_PASSWORD_LENGTH + "位";
+        }
+        if (row.password() == null && row.passwordHash() != null && !BCRYPT_HASH.matcher(row.passwordHash()).matches()) {
+            return "passwordHash 不是有效的 BCrypt 哈希";
+        }
+        return null;
+    }
+
+    private String firstViolation(String property, String value) {
+        Set<ConstraintViolation<User>> violations = validator.validateValue(User.class, property, value);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private Iterator<Map<String, String>> ndjsonRows(InputStream in) throws IOException {
+        MappingIterator<Map<String, Object>> values = objectMapper.readerFor(Map.class).readValues(in);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return values.hasNextValue();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public Map<String, String> next() {
+                Map<String, String> fields = new HashMap<>();
+                try {
+                    values.nextValue().forEach((key, value) -> fields.put(key, value == null ? null : value.toString()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return fields;
+            }
+        };
+    }
+
+    private static Iterator<Map<String, String>> csvRows(InputStream in) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            return Collections.emptyIterator();
+        }
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+        List<String> columns = header.stream().map(String::trim).toList();
+        return new Iterator<>() {
+            private List<String> next = advance();
+
+            private List<String> advance() {
+                try {
+                    List<String> record;
+                    do {
+                        record = readCsvRecord(reader);
+                    } while (record != null && record.size() == 1 && record.get(0).isBlank());
+                    return record;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Map<String, String> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < columns.size() && i < next.size(); i++) {
+                    fields.put(columns.get(i), next.get(i));
+                }
+                next = advance();
+                return fields;
+            }
+        };
+    }
+
+    /**
+     * 读取一条 CSV 记录，支持双引号包裹的字段（可含逗号、换行和 "" 转义）；到达结尾返回 null
+     */
+    private static List<String> readCsvRecord(Reader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int peek = reader.read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record Row(int number, Map<String, String> fields) {
+
+        String get(String column) {
+            String value = fields.get(column);
+            if (value == null) {
+                for (Map.Entry<String, String> entry : fields.entrySet()) {
+                    if (entry.getKey().equalsIgnoreCase(column)) {
+                        value = entry.getValue();
+                        break;
+                    }
+                }
+            }
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+
+        String username() {
+            return get("username");
+        }
+
+        String email() {
+            return get("email");
+        }
+
+        String role() {
+            String role = get("role");
+            return role == null ? User.UserRole.USER.name() : role.toUpperCase(Locale.ROOT);
+        }
+
+        String password() {
+            // 密码原样使用，不去除首尾空白
+            String value = fields.get("password");
+            return value == null || value.isEmpty() ? null : value;
+        }
+
+        String passwordHash() {
+            return get("passwordHash");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.usermgmt.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 用户搜索索引（n-gram 倒排索引）
+ *
+ * 对用户名、邮箱、姓名的小写形式建立长度 1~3 的子串倒排表：
+ * 查询词不超过 3 个字符时直接命中一个倒排表，更长的查询词对其所有 trigram 求交集，
+ * 再对少量候选做精确校验和打分，避免对全部用户做 LIKE '%term%' 扫描。
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final int GRAM = 3;
+
+    public enum Field {
+        USERNAME(3), EMAIL(2), FULL_NAME(1);
+
+        private final int weight;
+
+        Field(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private volatile boolean ready = true;
+
+    /**
+     * 重建期间索引不完整，调用方应回退到线性扫描
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 同一 id 的 index/remove 在 documents.compute 中串行执行，倒排表与文档保持一致
+     */
+    public void index(UserEntry user) {
+        long id = user.id();
+        Document document = Document.of(user);
+        documents.compute(id, (k, previous) -> {
+            if (previous != null) {
+                for (String gram : previous.grams()) {
+                    if (!document.grams().contains(gram)) {
+                        removePosting(gram, id);
+                    }
+                }
+            }
+            document.grams().forEach(gram -> addPosting(gram, id));
+            return document;
+        });
+    }
+
+    public void remove(long id) {
+        documents.computeIfPresent(id, (k, previous) -> {
+            previous.grams().forEach(gram -> removePosting(gram, id));
+            return null;
+        });
+    }
+
+    /**
+     * 清空并根据给定用户重建索引
+     */
+    public synchronized void rebuild(Stream<UserEntry> users) {
+        ready = false;
+        try {
+            postings.clear();
+            documents.clear();
+            users.forEach(this::index);
+        } finally {
+            ready = true;
+        }
+    }
+
+    /**
+     * 按相关度返回匹配的用户 id：完全匹配 > 前缀匹配 > 子串匹配，用户名权重高于邮箱和姓名
+     */
+    public List<Long> search(String term, Set<Field> fields) {
+        String query = normalize(term);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> candidates = candidates(query);
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Long id : candidates) {
+            Document document = documents.get(id);
+            int score = document == null ? 0 : document.score(query, fields);
+            if (score > 0) {
+                scores.put(id, score);
+            }
+        }
+        return scores.entrySet().stream()
+            .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * 对单个用户打分，0 表示不匹配；索引不可用时供线性扫描复用同一套规则
+     */
+    public static int score(UserEntry user, String term, Set<Field> fields) {
+        return Document.of(user).score(normalize(term), fields);
+    }
+
+    private Set<Long> candidates(String query) {
+        if (query.length() <= GRAM) {
+            return postings.getOrDefault(query, Set.of());
+        }
+        List<Set<Long>> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Set<Long> posting = postings.get(query.substring(i, i + GRAM));
+            if (posting == null) {
+                return Set.of();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * 与 removePosting 一样在 compute 中修改，不会加入到刚被移除的空集合上
+     */
+    private void addPosting(String gram, long id) {
+        postings.compute(gram, (k, ids) -> {
+            ids = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    private void removePosting(String gram, long id) {
+        postings.computeIfPresent(gram, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Document(String username, String email, String fullName, Set<String> grams) {
+
+        static Document of(UserEntry user) {
+            String username = normalize(user.username());
+            String email = normalize(user.email());
+            String fullName = normalize(Objects.toString(user.firstName(), "") + " "
+                + Objects.toString(user.lastName(), ""));
+            Set<String> grams = new HashSet<>();
+            addGrams(grams, username);
+            addGrams(grams, email);
+            addGrams(grams, fullName);
+            return new Document(username, email, fullName, grams);
+        }
+
+        private static void addGrams(Set<String> grams, String text) {
+            for (int i = 0; i < text.length(); i++) {
+                for (int n = 1; n <= GRAM && i + n <= text.length(); n++) {
+                    grams.add(text.substring(i, i + n));
+                }
+            }
+        }
+
+        int score(String query, Set<Field> fields) {
+            int best = 0;
+            for (Field field : fields) {
+                String value = switch (field) {
+                    case USERNAME -> username;
+                    case EMAIL -> email;
+                    case FULL_NAME -> fullName;
+                };
+                int match = value.equals(query) ? 100 : value.startsWith(query) ? 50 : value.contains(query) ? 10 : 0;
+                best = Math.max(best, match * field.weight);
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package com.example.usermgmt.service;
+
+import com.example.usermgmt.dto.PageCursor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 内存用户存储
+ *
+ * 按 id / 用户名 / 邮箱 建立哈希索引，查找均为 O(1)。
+ * 每条用户记录是不可变的 {@link UserEntry} 快照，更新时整体替换，读线程无需加锁；
+ * 写操作通过 ConcurrentHashMap.compute 只锁定对应的桶，用户名和邮箱的唯一性通过 putIfAbsent 抢占。
+ * 所有写操作同步维护 {@link UserSearchIndex}，并递增 {@link ResourceVersions} 中的用户数据版本。
+ */
+@Component
+public class UserStore {
+
+    private final Map<Long, UserEntry> byId = new ConcurrentHashMap<>();
+    private final Map<String, Long> byUsername = new ConcurrentHashMap<>();
+    private final Map<String, Long> byEmail = new ConcurrentHashMap<>();
+    private final NavigableMap<PageCursor, Long> order = new ConcurrentSkipListMap<>(PageCursor.ASCENDING);
+    private final AtomicLong idSequence = new AtomicLong();
+    private final Map<String, LongAdder> roleCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final Map<LocalDate, LongAdder> createdPerDay = new ConcurrentHashMap<>();
+    // 密码哈希单独存放，不进入对外返回的用户快照
+    private final Map<Long, String> passwordHashes = new ConcurrentHashMap<>();
+    private final UserSearchIndex searchIndex;
+    private final ResourceVersions resourceVersions;
+
+    public UserStore(UserSearchIndex searchIndex, ResourceVersions resourceVersions) {
+        this.searchIndex = searchIndex;
+        this.resourceVersions = resourceVersions;
+        // 初始演示数据
+        seed("admin", "System", "Admin", "ADMIN", "admin@example.com");
+        seed("user1", "John", "Doe", "USER", "user1@example.com");
+        seed("user2", "Jane", "Smith", "USER", "user2@example.com");
+        seed("manager1", "Mike", "Johnson", "MANAGER", "manager1@example.com");
+        // 演示管理员密码 admin123（成本 10，首次登录时按校准后的成本重新哈希）
+        findByUsername("admin").ifPresent(admin -> passwordHashes.put(admin.id(),
+            "$2a$10$H9d8Zw90OS/oqFAyJKRG3uwcqUggJVm7K7OdnR3eTx.kRMx6U3FPW"));
+    }
+
+    public Optional<UserEntry> findById(long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    public Optional<UserEntry> findByUsername(String username) {
+        Long id = username == null ? null : byUsername.get(username);
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    public Optional<UserEntry> findByEmail(String email) {
+        Long id = email == null ? null : byEmail.get(normalizeEmail(email));
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    public boolean existsByUsername(String username) {
+        return username != null && byUsername.containsKey(username);
+    }
+
+    public boolean existsByEmail(String email) {
+        return email != null && byEmail.containsKey(normalizeEmail(email));
+    }
+
+    /**
+     * 按 (创建时间, id) 顺序遍历所有用户
+     */
+    public Stream<UserEntry> stream() {
+        return order.values().stream().map(byId::get).filter(Objects::nonNull);
+    }
+
+    /**
+     * 从游标之后开始按 (创建时间, id) 顺序遍历，after 为 null 时从头开始。
+     * 基于跳表定位起点，与页码深度无关。
+     */
+    public Stream<UserEntry> streamAfter(PageCursor after) {
+        Map<PageCursor, Long> tail = after == null ? order : order.tailMap(after, false);
+        return tail.values().stream().map(byId::get).filter(Objects::nonNull);
+    }
+
+    /**
+     * 用户记录在排序索引中的位置
+     */
+    public static PageCursor cursorOf(UserEntry user) {
+        return new PageCursor(LocalDateTime.parse(user.createdAt()), user.id());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * 按角色统计的用户数，随写操作增量维护
+     */
+    public Map<String, Long> countByRole() {
+        return snapshot(roleCounts);
+    }
+
+    /**
+     * 按状态统计的用户数，随写操作增量维护
+     */
+    public Map<String, Long> countByStatus() {
+        return snapshot(statusCounts);
+    }
+
+    /**
+     * 某天创建且仍存在的用户数
+     */
+    public long countCreatedOn(LocalDate day) {
+        LongAdder adder = createdPerDay.get(day);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * 按相关度搜索用户名、邮箱和姓名；索引重建期间回退为线性扫描
+     */
+    public List<UserEntry> search(String term, Set<UserSearchIndex.Field> fields) {
+        if (!searchIndex.isReady()) {
+            return stream()
+                .filter(u -> UserSearchIndex.score(u, term, fields) > 0)
+                .sorted(Comparator.comparingInt((UserEntry u) -> UserSearchIndex.score(u, term, fields)).reversed())
+                .collect(Collectors.toList());
+        }
+        return searchIndex.search(term, fields).stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    public void rebuildSearchIndex() {
+        searchIndex.rebuild(stream());
+    }
+
+    /**
+     * 创建用户，用户名或邮箱已被占用时抛出 IllegalArgumentException
+     */
+    public UserEntry create(String username, String firstName, String lastName, String role, String email) {
+        return create(username, firstName, lastName, role, email, null);
+    }
+
+    /**
+     * 创建带密码的用户，passwordHash 为已加密的密码
+     */
+    public UserEntry create(String username, String firstName, String lastName, String role, String email,
+                            String passwordHash) {
+        String now = now();
+        UserEntry user = insert(username, firstName, lastName, role, email, null, now, now);
+        if (passwordHash != null) {
+            passwordHashes.put(user.id(), passwordHash);
+        }
+        return user;
+    }
+
+    public record NewUser(String username, String firstName, String lastName, String role, String email,
+                          String passwordHash) {
+    }
+
+    /**
+     * 批量创建的单行结果，成功时 user 非空，失败时 error 为原因
+     */
+    public record CreateResult(UserEntry user, String error) {
+    }
+
+    /**
+     * 批量创建，整批共用同一个创建时间；单行失败（如并发占用了用户名）不影响其余行
+     */
+    public List<CreateResult> createAll(List<NewUser> users) {
+        String now = now();
+        List<CreateResult> results = new ArrayList<>(users.size());
+        for (NewUser newUser : users) {
+            try {
+                UserEntry user = insert(newUser.username(), newUser.firstName(), newUser.lastName(),
+                    newUser.role(), newUser.email(), null, now, now);
+                if (newUser.passwordHash() != null) {
+                    passwordHashes.put(user.id(), newUser.passwordHash());
+                }
+                results.add(new CreateResult(user, null));
+            } catch (IllegalArgumentException e) {
+                results.add(new CreateResult(null, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 返回给定用户名中已被占用的部分
+     */
+    public Set<String> existingUsernames(Collection<String> usernames) {
+        Set<String> existing = new HashSet<>();
+        for (String username : usernames) {
+            if (byUsername.containsKey(username)) {
+                existing.add(username);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * 返回给定邮箱中已被占用的部分（按小写比较，返回原始写法）
+     */
+    public Set<String> existingEmails(Collection<String> emails) {
+        Set<String> existing = new HashSet<>();
+        for (String email : emails) {
+            if (byEmail.containsKey(normalizeEmail(email))) {
+                existing.add(email);
+            }
+        }
+        return existing;
+    }
+
+    public Optional<String> passwordHashOf(long id) {
+        return Optional.ofNullable(passwordHashes.get(id));
+    }
+
+    /**
+     * 仅当当前哈希仍为 expected 时替换，避免覆盖并发修改过的密码
+     */
+    public boolean replacePasswordHash(long id, String expected, String passwordHash) {
+        return passwordHashes.replace(id, expected, passwordHash);
+    }
+
+    private UserEntry insert(String username, String firstName, String lastName, String role, String email,
+                             String lastLogin, String createdAt, String updatedAt) {
+        if (username == null || username.isEmpty()) {
+            throw new IllegalArgumentException("用户名不能为空");
+        }
+        long id = idSequence.incrementAndGet();
+        if (byUsername.putIfAbsent(username, id) != null) {
+            throw new IllegalArgumentException("用户名已存在");
+        }
+        if (email != null && byEmail.putIfAbsent(normalizeEmail(email), id) != null) {
+            byUsername.remove(username, id);
+            throw new IllegalArgumentException("邮箱已存在");
+        }
+
+        UserEntry snapshot = new UserEntry(id, username, firstName, lastName, role, email, "ACTIVE",
+            lastLogin, createdAt, updatedAt);
+        byId.put(id, snapshot);
+        searchIndex.index(snapshot);
+        order.put(cursorOf(snapshot), id);
+        adjustCounts(snapshot, 1);
+        resourceVersions.bump(ResourceVersions.Resource.USERS);
+        return snapshot;
+    }
+
+    /**
+     * 合并更新指定字段，返回更新后的快照；用户不存在时返回 empty。
+     * 修改邮箱时若新邮箱已被其他用户占用，抛出 IllegalArgumentException。
+     */
+    public Optional<UserEntry> update(long id, Map<String, Object> changes) {
+        UserEntry current = byId.get(id);
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        String oldEmail = current.email();
+        String oldKey = oldEmail == null ? null : normalizeEmail(oldEmail);
+        String newEmail = (String) changes.get("email");
+        boolean emailChanged = changes.containsKey("email")
+            && !Objects.equals(oldKey, newEmail == null ? null : normalizeEmail(newEmail));
+        String newKey = emailChanged && newEmail != null ? normalizeEmail(newEmail) : null;
+        boolean reserved = false;
+        if (newKey != null) {
+            Long owner = byEmail.putIfAbsent(newKey, id);
+            if (owner != null && owner != id) {
+                throw new IllegalArgumentException("邮箱已存在");
+            }
+            reserved = owner == null;
+        }
+
+        boolean committed = false;
+        try {
+            UserEntry updated = byId.computeIfPresent(id, (key, old) -> {
+                UserEntry snapshot = old.with(changes, now());
+                searchIndex.index(snapshot);
+                adjustCounts(old, -1);
+                adjustCounts(snapshot, 1);
+                return snapshot;
+            });
+            if (updated == null) {
+                // 并发删除
+                return Optional.empty();
+            }
+            committed = true;
+
+            if (emailChanged && oldKey != null) {
+                byEmail.remove(oldKey, id);
+            }
+            resourceVersions.bump(ResourceVersions.Resource.USERS);
+            return Optional.of(updated);
+        } finally {
+            // 未能提交（并发删除或应用修改时出错）时归还预占的新邮箱
+            if (reserved && !committed) {
+                byEmail.remove(newKey, id);
+            }
+        }
+    }
+
+    /**
+     * 批量修改的单个用户结果，before 与 after 为修改前后的快照
+     */
+    public record BulkChange(UserEntry before, UserEntry after) {
+    }
+
+    /**
+     * 批量修改角色或状态：对 ids 中（为 null 时为全部用户）满足 filter 的用户一次性应用 changes，
+     * 已是目标值的用户跳过。整批共用同一个修改时间，只递增一次版本号。
+     * 不允许修改用户名和邮箱，它们需要维护唯一索引，请逐个调用 {@link #update}。
+     */
+    public List<BulkChange> updateAll(Collection<Long> ids, Predicate<UserEntry> filter,
+                                      Map<String, Object> changes) {
+        if (changes.containsKey("username") || changes.containsKey("email")) {
+            throw new IllegalArgumentException("批量修改不支持用户名和邮箱");
+        }
+        String now = now();
+        List<BulkChange> applied = new ArrayList<>();
+        Iterable<Long> targets = ids != null ? ids : byId.keySet();
+        for (Long id : targets) {
+            byId.computeIfPresent(id, (key, old) -> {
+                if (!filter.test(old) || old.matches(changes)) {
+                    return old;
+                }
+                UserEntry snapshot = old.with(changes, now);
+                adjustCounts(old, -1);
+                adjustCounts(snapshot, 1);
+                applied.add(new BulkChange(old, snapshot));
+                return snapshot;
+            });
+        }
+        if (!applied.isEmpty()) {
+            resourceVersions.bump(ResourceVersions.Resource.USERS);
+        }
+        return applied;
+    }
+
+    /**
+     * 按用户名写回最后登录时间，只会把时间往后推，不修改 updatedAt；整批只递增一次版本号
+     */
+    public void recordLastLogins(Map<String, LocalDateTime> lastLogins) {
+        boolean changed = false;
+        for (Map.Entry<String, LocalDateTime> entry : lastLogins.entrySet()) {
+            Long id = byUsername.get(entry.getKey());
+            if (id == null) {
+                continue;
+            }
+            String loginTime = format(entry.getValue());
+            UserEntry updated = byId.computeIfPresent(id, (key, old) ->
+                old.lastLogin() != null && old.lastLogin().compareTo(loginTime) >= 0 ? old : old.withLastLogin(loginTime));
+            changed |= updated != null && loginTime.equals(updated.lastLogin());
+        }
+        if (changed) {
+            resourceVersions.bump(ResourceVersions.Resource.USERS);
+        }
+    }
+
+    public boolean delete(long id) {
+        AtomicReference<UserEntry> removed = new AtomicReference<>();
+        byId.computeIfPresent(id, (key, old) -> {
+            removed.set(old);
+            searchIndex.remove(id);
+            adjustCounts(old, -1);
+            return null;
+        });
+        UserEntry user = removed.get();
+        if (user == null) {
+            return false;
+        }
+        order.remove(cursorOf(user));
+        passwordHashes.remove(id);
+        byUsername.remove(user.username(), id);
+        if (user.email() != null) {
+            byEmail.remove(normalizeEmail(user.email()), id);
+        }
+        resourceVersions.bump(ResourceVersions.Resource.USERS);
+        return true;
+    }
+
+    private void seed(String username, String firstName, String lastName, String role, String email) {
+        insert(username, firstName, lastName, role, email,
+            "2024-12-13T10:30:00", "2024-12-01T08:00:00", "2024-12-13T10:30:00");
+    }
+
+    private void adjustCounts(UserEntry user, int delta) {
+        adjust(roleCounts, user.role(), delta);
+        adjust(statusCounts, user.status(), delta);
+        createdPerDay.computeIfAbsent(cursorOf(user).time().toLocalDate(), k -> new LongAdder()).add(delta);
+    }
+
+    private static void adjust(Map<String, LongAdder> counts, String key, int delta) {
+        if (key != null) {
+            counts.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counts) {
+        Map<String, Long> result = new TreeMap<>();
+        counts.forEach((key, adder) -> {
+            long count = adder.sum();
+            if (count > 0) {
+                result.put(key, count);
+            }
+        });
+        return result;
+    }
+
+    private static String now() {
+        return format(LocalDateTime.now());
+    }
+
+    static String format(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.SECONDS).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    private static String normalizeEmail(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,15 @@
+-- 与 mysql/V1_1__add_audit_log_id_generator.sql 对应：审计日志 id 号段表和按时间查询的索引，已存在时跳过
+
+CREATE TABLE IF NOT EXISTS id_generators (
+    name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (name)
+);
+
+-- 已有日志时从现有最大 id 之后至少一个号段（500）开始，见 mysql 版本的说明
+INSERT INTO id_generators (name, next_val)
+SELECT 'audit_logs', CASE WHEN MAX(id) IS NULL THEN 0 ELSE MAX(id) + 500 END FROM audit_logs
+WHERE NOT EXISTS (SELECT 1 FROM id_generators WHERE name = 'audit_logs');
+
+CREATE INDEX IF NOT EXISTS idx_audit_logs_timestamp ON audit_logs (timestamp);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_action_timestamp ON audit_logs (action, timestamp);
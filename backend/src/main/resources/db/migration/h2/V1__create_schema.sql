@@ -0,0 +1,29 @@
+-- 内嵌 H2（MODE=MySQL）使用的初始表结构，与 H2Dialect 下 ddl-auto=update 按基线实体生成的语句一致，
+-- 对应 mysql/V1__create_schema.sql；枚举列按 H2Dialect 的映射使用 VARCHAR 加 CHECK 约束
+CREATE TABLE audit_logs (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    timestamp TIMESTAMP(6),
+    user_id BIGINT,
+    action VARCHAR(255) NOT NULL,
+    details TEXT,
+    ip_address VARCHAR(255),
+    resource VARCHAR(255) NOT NULL,
+    user_agent TEXT,
+    username VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    created_at TIMESTAMP(6),
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    last_login_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    username VARCHAR(50) NOT NULL UNIQUE,
+    email VARCHAR(255) UNIQUE,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(255) NOT NULL CHECK (role IN ('ADMIN', 'MANAGER', 'USER')),
+    status VARCHAR(255) NOT NULL CHECK (status IN ('ACTIVE', 'INACTIVE', 'LOCKED')),
+    PRIMARY KEY (id)
+);
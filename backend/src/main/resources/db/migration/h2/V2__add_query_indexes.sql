@@ -0,0 +1,6 @@
+-- 与 mysql/V2__add_query_indexes.sql 相同
+CREATE INDEX idx_users_status ON users (status);
+CREATE INDEX idx_users_role ON users (role);
+CREATE INDEX idx_users_created_at_id ON users (created_at, id);
+CREATE INDEX idx_users_last_login_at ON users (last_login_at);
+CREATE INDEX idx_audit_logs_user_timestamp ON audit_logs (user_id, timestamp);
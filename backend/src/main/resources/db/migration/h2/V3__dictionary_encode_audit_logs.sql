@@ -0,0 +1,52 @@
+-- 与 mysql/V3__dictionary_encode_audit_logs.sql 的表结构相同；内嵌库都是内存库，启动时没有旧数据需要转换
+CREATE TABLE audit_actions (
+    id SMALLINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255) NOT NULL,
+    resource VARCHAR(16) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_audit_actions_name UNIQUE (name)
+);
+
+INSERT INTO audit_actions (id, name, resource) VALUES
+    (1, 'LOGIN', 'AUTH'),
+    (2, 'LOGOUT', 'AUTH'),
+    (3, 'CREATE_USER', 'USER'),
+    (4, 'UPDATE_USER', 'USER'),
+    (5, 'DELETE_USER', 'USER'),
+    (6, 'BULK_UPDATE_USERS', 'USER'),
+    (7, 'RESET_PASSWORD', 'USER'),
+    (8, 'CHANGE_PASSWORD', 'PROFILE'),
+    (9, 'UPDATE_PROFILE', 'PROFILE'),
+    (10, 'VIEW_USERS', 'USER'),
+    (11, 'VIEW_LOGS', 'LOG'),
+    (12, 'EXPORT_DATA', 'LOG');
+
+ALTER TABLE audit_actions ALTER COLUMN id RESTART WITH 13;
+
+CREATE TABLE audit_user_agents (
+    id INT GENERATED BY DEFAULT AS IDENTITY,
+    hash VARBINARY(32) NOT NULL,
+    user_agent TEXT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_audit_user_agents_hash UNIQUE (hash)
+);
+
+CREATE TABLE audit_ip_addresses (
+    id INT GENERATED BY DEFAULT AS IDENTITY,
+    address VARBINARY(16) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_audit_ip_addresses_address UNIQUE (address)
+);
+
+DROP INDEX idx_audit_logs_action_timestamp;
+
+ALTER TABLE audit_logs DROP COLUMN username;
+ALTER TABLE audit_logs DROP COLUMN action;
+ALTER TABLE audit_logs DROP COLUMN resource;
+ALTER TABLE audit_logs DROP COLUMN ip_address;
+ALTER TABLE audit_logs DROP COLUMN user_agent;
+ALTER TABLE audit_logs ADD COLUMN action_id SMALLINT NOT NULL;
+ALTER TABLE audit_logs ADD COLUMN ip_address_id INT;
+ALTER TABLE audit_logs ADD COLUMN user_agent_id INT;
+
+CREATE INDEX idx_audit_logs_action_timestamp ON audit_logs (action_id, timestamp);
@@ -0,0 +1,31 @@
+-- 基线之后由实体变更带来的结构：审计日志 id 号段表（AuditLog 的 TableGenerator）和按时间查询的索引。
+-- 在基线之后、ddl-auto=update 期间启动过的库可能已有其中一部分，每一步都先检查是否存在
+
+CREATE TABLE IF NOT EXISTS id_generators (
+    name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+-- 号段表保存最后分配的值，每次取 500 个：已有日志时从现有最大 id 之后至少一个号段开始，避免与旧行冲突；
+-- 空表时与 Hibernate 自动插入的初始值相同
+INSERT INTO id_generators (name, next_val)
+SELECT 'audit_logs', CASE WHEN MAX(id) IS NULL THEN 0 ELSE MAX(id) + 500 END FROM audit_logs
+WHERE NOT EXISTS (SELECT 1 FROM id_generators WHERE name = 'audit_logs');
+
+-- MySQL 没有 CREATE INDEX IF NOT EXISTS，按 information_schema 判断后动态执行
+SET @ddl = IF(EXISTS (SELECT 1 FROM information_schema.statistics
+                      WHERE table_schema = DATABASE() AND table_name = 'audit_logs'
+                        AND index_name = 'idx_audit_logs_timestamp'),
+              'DO 0', 'CREATE INDEX idx_audit_logs_timestamp ON audit_logs (timestamp)');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @ddl = IF(EXISTS (SELECT 1 FROM information_schema.statistics
+                      WHERE table_schema = DATABASE() AND table_name = 'audit_logs'
+                        AND index_name = 'idx_audit_logs_action_timestamp'),
+              'DO 0', 'CREATE INDEX idx_audit_logs_action_timestamp ON audit_logs (action, timestamp)');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
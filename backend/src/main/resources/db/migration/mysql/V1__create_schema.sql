@@ -0,0 +1,32 @@
+-- 初始表结构，与此前 ddl-auto=update 按基线实体生成的语句一致（含 Hibernate 生成的约束名）；
+-- 已有数据库按 baseline 跳过本脚本，此后的变更都放在后续版本中
+CREATE TABLE audit_logs (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    timestamp DATETIME(6),
+    user_id BIGINT,
+    action VARCHAR(255) NOT NULL,
+    details TEXT,
+    ip_address VARCHAR(255),
+    resource VARCHAR(255) NOT NULL,
+    user_agent TEXT,
+    username VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE users (
+    created_at DATETIME(6),
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    last_login_at DATETIME(6),
+    updated_at DATETIME(6),
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(255),
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    password VARCHAR(255) NOT NULL,
+    role ENUM('ADMIN', 'MANAGER', 'USER') NOT NULL,
+    status ENUM('ACTIVE', 'INACTIVE', 'LOCKED') NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+ALTER TABLE users ADD CONSTRAINT UK_r43af9ap4edm43mmtq01oddj6 UNIQUE (username);
+ALTER TABLE users ADD CONSTRAINT UK_6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email);
@@ -0,0 +1,10 @@
+-- 仪表板、列表和审计日志查询的过滤与排序列
+-- 按状态、角色分页和计数
+CREATE INDEX idx_users_status ON users (status);
+CREATE INDEX idx_users_role ON users (role);
+-- 按创建时间的游标分页、最近注册和新增用户计数
+CREATE INDEX idx_users_created_at_id ON users (created_at, id);
+-- 最近登录和从未登录的用户
+CREATE INDEX idx_users_last_login_at ON users (last_login_at);
+-- 某个用户的审计日志，按时间排序
+CREATE INDEX idx_audit_logs_user_timestamp ON audit_logs (user_id, timestamp);
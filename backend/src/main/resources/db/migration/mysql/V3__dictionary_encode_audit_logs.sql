@@ -0,0 +1,86 @@
+-- 审计日志改为字典编码：操作、User-Agent、IP 地址换成字典表中的编码，资源并入操作字典，去掉冗余的用户名
+
+-- 操作字典，AuditLog.Actions 中的常量使用固定编码
+CREATE TABLE audit_actions (
+    id SMALLINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    resource VARCHAR(16) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_audit_actions_name UNIQUE (name)
+) ENGINE = InnoDB;
+
+INSERT INTO audit_actions (id, name, resource) VALUES
+    (1, 'LOGIN', 'AUTH'),
+    (2, 'LOGOUT', 'AUTH'),
+    (3, 'CREATE_USER', 'USER'),
+    (4, 'UPDATE_USER', 'USER'),
+    (5, 'DELETE_USER', 'USER'),
+    (6, 'BULK_UPDATE_USERS', 'USER'),
+    (7, 'RESET_PASSWORD', 'USER'),
+    (8, 'CHANGE_PASSWORD', 'PROFILE'),
+    (9, 'UPDATE_PROFILE', 'PROFILE'),
+    (10, 'VIEW_USERS', 'USER'),
+    (11, 'VIEW_LOGS', 'LOG'),
+    (12, 'EXPORT_DATA', 'LOG');
+
+INSERT INTO audit_actions (name, resource)
+SELECT action, MIN(resource) FROM audit_logs
+WHERE action NOT IN (SELECT name FROM audit_actions)
+GROUP BY action;
+
+-- User-Agent 字典，按 UTF-8 内容的 SHA-256 去重
+CREATE TABLE audit_user_agents (
+    id INT NOT NULL AUTO_INCREMENT,
+    hash VARBINARY(32) NOT NULL,
+    user_agent TEXT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_audit_user_agents_hash UNIQUE (hash)
+) ENGINE = InnoDB;
+
+INSERT INTO audit_user_agents (hash, user_agent)
+SELECT UNHEX(SHA2(user_agent, 256)) AS ua_hash, MIN(user_agent) FROM audit_logs
+WHERE user_agent IS NOT NULL AND user_agent <> ''
+GROUP BY ua_hash;
+
+-- IP 地址字典，IPv4 4 字节、IPv6 16 字节；不是 IP 地址的旧值不保留
+-- ::ffff:a.b.c.d 形式的 IPv4 映射地址与应用写入时一致，按 4 字节的 IPv4 保存
+CREATE TABLE audit_ip_addresses (
+    id INT NOT NULL AUTO_INCREMENT,
+    address VARBINARY(16) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_audit_ip_addresses_address UNIQUE (address)
+) ENGINE = InnoDB;
+
+INSERT INTO audit_ip_addresses (address)
+SELECT DISTINCT IF(IS_IPV4_MAPPED(address), SUBSTR(address, 13), address)
+FROM (SELECT INET6_ATON(ip_address) AS address FROM audit_logs) l
+WHERE address IS NOT NULL;
+
+-- 旧数据换成编码
+ALTER TABLE audit_logs
+    ADD COLUMN action_id SMALLINT AFTER user_id,
+    ADD COLUMN ip_address_id INT AFTER details,
+    ADD COLUMN user_agent_id INT AFTER ip_address_id;
+
+UPDATE audit_logs l JOIN audit_actions a ON a.name = l.action
+SET l.action_id = a.id;
+
+UPDATE audit_logs l JOIN audit_user_agents u ON u.hash = UNHEX(SHA2(l.user_agent, 256))
+SET l.user_agent_id = u.id;
+
+UPDATE audit_logs l JOIN audit_ip_addresses i
+    ON i.address = IF(IS_IPV4_MAPPED(INET6_ATON(l.ip_address)),
+                      SUBSTR(INET6_ATON(l.ip_address), 13), INET6_ATON(l.ip_address))
+SET l.ip_address_id = i.id;
+
+DROP INDEX idx_audit_logs_action_timestamp ON audit_logs;
+
+ALTER TABLE audit_logs
+    MODIFY action_id SMALLINT NOT NULL,
+    DROP COLUMN username,
+    DROP COLUMN action,
+    DROP COLUMN resource,
+    DROP COLUMN ip_address,
+    DROP COLUMN user_agent;
+
+CREATE INDEX idx_audit_logs_action_timestamp ON audit_logs (action_id, timestamp);
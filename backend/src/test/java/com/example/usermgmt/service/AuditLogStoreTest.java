@@ -0,0 +1,239 @@
+package com.example.usermgmt.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditLogStoreTest {
+
+    private static final long TIME = 1_700_000_000_000L;
+    // 每条记录的字段长度相同，记录大小固定，便于构造段边界
+    private static final int RECORD_BYTES = Integer.BYTES + Long.BYTES * 2
+        + AuditLogSegment.encode(1L, "user", "LOGIN", "details", "10.0.0.1", "agent").length;
+
+    @TempDir
+    Path directory;
+
+    private final List<AuditLogStore> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeStores() throws IOException {
+        for (AuditLogStore store : opened) {
+            store.close();
+        }
+    }
+
+    @Test
+    void reopenRecoversCommittedRecords() throws IOException {
+        AuditLogStore store = open(RECORD_BYTES * 100);
+        appendAll(store, 5);
+        store.close();
+        opened.remove(store);
+
+        AuditLogStore reopened = open(RECORD_BYTES * 100);
+        assertThat(reopened.size()).isEqualTo(5);
+        assertThat(reopened.findById(5)).get().extracting(AuditEntry::actionDetails).isEqualTo("details");
+        assertThat(reopened.append(TIME, 1L, "user", "LOGIN", "details", "10.0.0.1", "agent").id()).isEqualTo(6);
+    }
+
+    @Test
+    void reopenIgnoresRecordWithoutCommittedLength() throws IOException {
+        AuditLogStore store = open(RECORD_BYTES * 100);
+        appendAll(store, 3);
+        store.close();
+        opened.remove(store);
+
+        // 模拟第 4 条写完内容、尚未写入长度字段时进程退出
+        Path segment = onlySegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ByteBuffer partial = ByteBuffer.allocate(RECORD_BYTES);
+            partial.putInt(0).putLong(4).putLong(TIME).put(AuditLogSegment.encode(9L, "x", "y", "z", null, null));
+            partial.flip();
+            channel.write(partial, (long) RECORD_BYTES * 3);
+        }
+
+        AuditLogStore reopened = open(RECORD_BYTES * 100);
+        assertThat(reopened.size()).isEqualTo(3);
+        AuditEntry next = reopened.append(TIME, 2L, "other", "LOGOUT", "after crash", "10.0.0.2", "agent");
+        assertThat(next.id()).isEqualTo(4);
+        assertThat(reopened.findById(4)).contains(next);
+    }
+
+    @Test
+    void reopenAfterFileTruncatedInsideUncommittedRecord() throws IOException {
+        AuditLogStore store = open(RECORD_BYTES * 100);
+        appendAll(store, 3);
+        store.close();
+        opened.remove(store);
+
+        // 文件截断在第 4 条的头部中间，重新映射时补零
+        Path segment = onlySegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate((long) RECORD_BYTES * 3 + 6);
+        }
+
+        AuditLogStore reopened = open(RECORD_BYTES * 100);
+        assertThat(reopened.size()).isEqualTo(3);
+        assertThat(ids(reopened.streamNewestFirst())).containsExactly(3L, 2L, 1L);
+        assertThat(reopened.append(TIME, 1L, "user", "LOGIN", "details", "10.0.0.1", "agent").id()).isEqualTo(4);
+        assertThat(Files.size(segment)).isEqualTo(RECORD_BYTES * 100L);
+    }
+
+    @Test
+    void rollsToNewSegmentAtExactBoundary() throws IOException {
+        AuditLogStore store = open(RECORD_BYTES * 3);
+        appendAll(store, 3);
+        assertThat(segmentFiles()).hasSize(1);
+
+        appendAll(store, 4);
+        assertThat(segmentFiles()).hasSize(3);
+        assertThat(store.size()).isEqualTo(7);
+        assertThat(ids(store.streamNewestFirst())).containsExactly(7L, 6L, 5L, 4L, 3L, 2L, 1L);
+        assertThat(ids(store.streamBefore(5))).containsExactly(4L, 3L, 2L, 1L);
+        for (long id = 1; id <= 7; id++) {
+            assertThat(store.findById(id)).get().extracting(AuditEntry::id).isEqualTo(id);
+        }
+    }
+
+    @Test
+    void reopenContinuesInLastSegment() throws IOException {
+        AuditLogStore store = open(RECORD_BYTES * 3);
+        appendAll(store, 4);
+        store.close();
+        opened.remove(store);
+
+        AuditLogStore reopened = open(RECORD_BYTES * 3);
+        assertThat(reopened.size()).isEqualTo(4);
+        appendAll(reopened, 2);
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(ids(reopened.streamNewestFirst())).containsExactly(6L, 5L, 4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void rejectsRecordLargerThanSegment() throws IOException {
+        AuditLogStore store = open(RECORD_BYTES * 2);
+        String details = "x".repeat(RECORD_BYTES * 2);
+
+        assertThatThrownBy(() -> store.append(TIME, 1L, "user", "LOGIN", details, null, null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(store.size()).isZero();
+        appendAll(store, 1);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void idRangeSpansSegments() throws IOException {
+        AuditLogStore store = open(RECORD_BYTES * 2);
+        for (int i = 0; i < 6; i++) {
+            store.append(TIME + i * 1000L, 1L, "user", "LOGIN", "details", "10.0.0.1", "agent");
+        }
+
+        AuditLogStore.IdRange range = store.idRange(TIME + 1000, TIME + 4000);
+        assertThat(range).isEqualTo(new AuditLogStore.IdRange(2, 4));
+        assertThat(ids(store.streamRange(range, Long.MAX_VALUE))).containsExactly(4L, 3L, 2L);
+        assertThat(store.idRange(TIME + 10_000, Long.MAX_VALUE).count()).isZero();
+    }
+
+    @Test
+    void earlierTimestampIsClampedToKeepOrder() throws IOException {
+        AuditLogStore store = open(RECORD_BYTES * 10);
+        store.append(TIME, 1L, "user", "LOGIN", "details", "10.0.0.1", "agent");
+        AuditEntry late = store.append(TIME - 5000, 1L, "user", "LOGIN", "details", "10.0.0.1", "agent");
+
+        assertThat(late.timestamp()).isEqualTo(TIME);
+    }
+
+    @Test
+    void concurrentAppendsGetUniqueIdsNotifiedInOrder() throws Exception {
+        AuditLogStore store = open(RECORD_BYTES * 50);
+        List<Long> notified = Collections.synchronizedList(new ArrayList<>());
+        store.subscribe(entry -> notified.add(entry.id()));
+
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    List<Long> ids = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(store.append(TIME, 1L, "user", "LOGIN", "details", "10.0.0.1", "agent").id());
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            Set<Long> all = ConcurrentHashMap.newKeySet();
+            for (Future<List<Long>> result : results) {
+                List<Long> ids = result.get(30, TimeUnit.SECONDS);
+                // 同一线程先后追加的记录 id 递增
+                assertThat(ids).isSorted();
+                all.addAll(ids);
+            }
+            long total = (long) threads * perThread;
+            assertThat(all).hasSize((int) total);
+            assertThat(store.size()).isEqualTo(total);
+            assertThat(notified).containsExactlyElementsOf(LongStream.rangeClosed(1, total).boxed().toList());
+            assertThat(ids(store.streamNewestFirst()))
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, total).map(id -> total + 1 - id).boxed().toList());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private AuditLogStore open(int segmentBytes) throws IOException {
+        AuditLogStore store = new AuditLogStore(directory.toString(), segmentBytes,
+            directory.resolve("archive").toString(), 16);
+        opened.add(store);
+        return store;
+    }
+
+    private static void appendAll(AuditLogStore store, int count) {
+        for (int i = 0; i < count; i++) {
+            store.append(TIME, 1L, "user", "LOGIN", "details", "10.0.0.1", "agent");
+        }
+    }
+
+    private static List<Long> ids(Stream<AuditEntry> entries) {
+        return entries.map(AuditEntry::id).collect(Collectors.toList());
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(AuditLogSegment::isSegmentFile).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> files = segmentFiles();
+        assertThat(files).hasSize(1);
+        return files.get(0);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.usermgmt.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void linearBucketsAreExact() {
+        for (long micros = 0; micros < 16; micros++) {
+            assertThat(LatencyHistogram.indexOf(micros)).isEqualTo((int) micros);
+            assertThat(LatencyHistogram.upperBoundOf((int) micros)).isEqualTo(micros);
+        }
+    }
+
+    @Test
+    void everyValueFallsInsideItsBucketWithinRelativeError() {
+        int previousIndex = -1;
+        for (long micros = 0; micros < (1L << 40); micros = micros < 4096 ? micros + 1 : micros + micros / 1000) {
+            int index = LatencyHistogram.indexOf(micros);
+            long upper = LatencyHistogram.upperBoundOf(index);
+            assertThat(index).as("index of %d", micros).isGreaterThanOrEqualTo(previousIndex);
+            assertThat(micros).isLessThanOrEqualTo(upper);
+            if (index > 0) {
+                assertThat(micros).isGreaterThan(LatencyHistogram.upperBoundOf(index - 1));
+            }
+            assertThat((double) (upper - micros)).isLessThanOrEqualTo(micros * 0.125);
+            previousIndex = index;
+        }
+    }
+
+    @Test
+    void valuesBeyondRangeGoToLastBucket() {
+        int last = LatencyHistogram.indexOf(Long.MAX_VALUE);
+        assertThat(LatencyHistogram.indexOf(1L << 41)).isEqualTo(last);
+        assertThat(LatencyHistogram.indexOf((1L << 41) - 1)).isEqualTo(last);
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.count()).isZero();
+        assertThat(histogram.percentile(0.99)).isZero();
+        assertThat(histogram.maxMicros()).isZero();
+    }
+
+    @Test
+    void percentilesOfUniformValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros);
+        }
+
+        assertThat(histogram.count()).isEqualTo(10_000);
+        assertThat(histogram.sumMicros()).isEqualTo(10_000L * 10_001 / 2);
+        assertThat(histogram.maxMicros()).isEqualTo(10_000);
+        assertThat((double) histogram.percentile(0.5)).isCloseTo(5000, within(5000 * 0.125));
+        assertThat((double) histogram.percentile(0.99)).isCloseTo(9900, within(9900 * 0.125));
+        // 分位数不超过实际最大值
+        assertThat(histogram.percentile(1.0)).isEqualTo(10_000);
+    }
+
+    @Test
+    void recordNanosConvertsAndClampsNegative() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(2_500_000);
+        histogram.recordNanos(-1000);
+
+        assertThat(histogram.count()).isEqualTo(2);
+        assertThat(histogram.sumMicros()).isEqualTo(2500);
+        assertThat(histogram.maxMicros()).isEqualTo(2500);
+        assertThat(histogram.percentile(0.5)).isZero();
+    }
+
+    @Test
+    void concurrentRecordsAreAllCounted() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 8;
+        int perThread = 100_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                long offset = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        histogram.record(i % 1000 + offset);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long expectedSum = 0;
+        for (int t = 0; t < threads; t++) {
+            expectedSum += (long) (perThread / 1000) * (999L * 1000 / 2 + 1000L * t);
+        }
+        assertThat(histogram.count()).isEqualTo((long) threads * perThread);
+        assertThat(histogram.sumMicros()).isEqualTo(expectedSum);
+        assertThat(histogram.maxMicros()).isEqualTo(999 + threads - 1);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.usermgmt.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSearchIndexTest {
+
+    private static final Set<UserSearchIndex.Field> ALL_FIELDS = EnumSet.allOf(UserSearchIndex.Field.class);
+
+    private final UserSearchIndex index = new UserSearchIndex();
+
+    @Test
+    void ranksExactBeforePrefixBeforeSubstring() {
+        index.index(user(1, "xanna", "x@example.com", "X", "Y"));
+        index.index(user(2, "anna", "a@example.com", "A", "B"));
+        index.index(user(3, "annabel", "b@example.com", "C", "D"));
+
+        assertThat(index.search("anna", ALL_FIELDS)).containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void usernameOutweighsEmailAndName() {
+        index.index(user(1, "someone", "carol@example.com", "Carol", "Smith"));
+        index.index(user(2, "carol", "c2@example.com", "Other", "Person"));
+
+        assertThat(index.search("carol", ALL_FIELDS)).containsExactly(2L, 1L);
+        assertThat(index.search("carol", EnumSet.of(UserSearchIndex.Field.USERNAME))).containsExactly(2L);
+    }
+
+    @Test
+    void shortAndLongQueriesAreCaseInsensitive() {
+        index.index(user(1, "Dave.Jones", "dave@example.com", "Dave", "Jones"));
+
+        assertThat(index.search("DA", ALL_FIELDS)).containsExactly(1L);
+        assertThat(index.search(" JONES ", ALL_FIELDS)).containsExactly(1L);
+        assertThat(index.search("jonesx", ALL_FIELDS)).isEmpty();
+        assertThat(index.search("  ", ALL_FIELDS)).isEmpty();
+    }
+
+    @Test
+    void reindexDropsStaleGramsAndRemoveDropsUser() {
+        index.index(user(1, "alice", "alice@example.com", "Alice", "Liddell"));
+        index.index(user(1, "bob", "bob@example.com", "Bob", "Builder"));
+
+        assertThat(index.search("alice", ALL_FIELDS)).isEmpty();
+        assertThat(index.search("bob", ALL_FIELDS)).containsExactly(1L);
+
+        index.remove(1);
+        assertThat(index.search("bob", ALL_FIELDS)).isEmpty();
+        assertThat(index.search("b", ALL_FIELDS)).isEmpty();
+    }
+
+    @Test
+    void rebuildReplacesContents() {
+        index.index(user(1, "old", "old@example.com", "Old", "User"));
+        index.rebuild(Stream.of(user(2, "new", "new@example.com", "New", "User")));
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("old", ALL_FIELDS)).isEmpty();
+        assertThat(index.search("new", ALL_FIELDS)).containsExactly(2L);
+    }
+
+    @Test
+    void matchesLinearScan() {
+        Random random = new Random(42);
+        List<UserEntry> users = new ArrayList<>();
+        for (int id = 1; id <= 300; id++) {
+            UserEntry user = user(id, word(random, 3, 8), word(random, 3, 6) + "@" + word(random, 2, 4) + ".com",
+                word(random, 2, 6), word(random, 2, 6));
+            users.add(user);
+            index.index(user);
+        }
+        for (int i = 0; i < 200; i++) {
+            String query = word(random, 1, 5);
+            List<Long> expected = users.stream()
+                .filter(user -> UserSearchIndex.score(user, query, ALL_FIELDS) > 0)
+                .sorted(Comparator.<UserEntry>comparingInt(user -> UserSearchIndex.score(user, query, ALL_FIELDS))
+                    .reversed().thenComparingLong(UserEntry::id))
+                .map(UserEntry::id)
+                .collect(Collectors.toList());
+            assertThat(index.search(query, ALL_FIELDS)).as(query).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void concurrentUpdatesKeepEveryUserSearchable() throws Exception {
+        int threads = 8;
+        int usersPerThread = 50;
+        long sharedId = (long) threads * usersPerThread + 1;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    // 各线程的用户共用大量 gram，同一个倒排表上反复并发增删
+                    for (int round = 0; round < 20; round++) {
+                        for (int i = 0; i < usersPerThread; i++) {
+                            long id = (long) thread * usersPerThread + i + 1;
+                            index.index(user(id, "member" + id, "member" + id + "@example.com", "Team", "Member"));
+                            if (round % 2 == 0) {
+                                index.remove(id);
+                            }
+                            // 不同线程同时把同一个用户改成各自不同的名字
+                            index.index(user(sharedId, sharedName(thread, i), "shared@example.com", "Shared", "User"));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long total = (long) threads * usersPerThread;
+        for (long id = 1; id <= total; id++) {
+            assertThat(index.search("member" + id + "@", EnumSet.of(UserSearchIndex.Field.EMAIL)))
+                .as("member%d", id).containsExactly(id);
+        }
+        assertThat(index.search("team", ALL_FIELDS)).hasSize((int) total);
+        // 共享用户最终的名字必须能搜到，其余名字都搜不到
+        List<String> found = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < usersPerThread; i++) {
+                if (index.search(sharedName(t, i), EnumSet.of(UserSearchIndex.Field.USERNAME)).contains(sharedId)) {
+                    found.add(sharedName(t, i));
+                }
+            }
+        }
+        assertThat(found).hasSize(1);
+    }
+
+    private static String sharedName(int thread, int i) {
+        return "q" + thread + "z" + i + "w" + (char) ('a' + thread) + (char) ('a' + i % 26);
+    }
+
+    private static UserEntry user(long id, String username, String email, String firstName, String lastName) {
+        return new UserEntry(id, username, firstName, lastName, "USER", email, "ACTIVE", null,
+            "2024-01-01T00:00:00", "2024-01-01T00:00:00");
+    }
+
+    private static String word(Random random, int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            // 小字母表，让查询词经常命中
+            word.append((char) ('a' + random.nextInt(5)));
+        }
+        return word.toString();
+    }
+}
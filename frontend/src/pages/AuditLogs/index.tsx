@@ -52,6 +52,20 @@ const AuditLogs: React.FC = () => {
     fetchLogs(filter);
   }, [filter]);
 
+  // 查看第一页且没有截止时间时实时追加新日志，不再重复查询列表
+  useEffect(() => {
+    if (filter.page !== 0 || filter.endDate) {
+      return undefined;
+    }
+    return apiService.streamAuditLogs(
+      { username: filter.username, actionType: filter.actionType },
+      (log) => {
+        setLogs((current) => [log, ...current.filter((item) => item.id !== log.id)].slice(0, filter.size));
+        setTotal((current) => current + 1);
+      },
+    );
+  }, [filter]);
+
   const handleSearch = async (values: any) => {
     const { dateRange, ...rest } = values;
     const params: AuditLogFilter = {
@@ -67,6 +67,7 @@ interface ApiService {
   // Audit Logs
   getAuditLogs(params: AuditLogFilter): Promise<PaginatedResponse<AuditLog>>;
   exportAuditLogs(params: Omit<AuditLogFilter, 'page' | 'size' | 'sort'>): Promise<Blob>;
+  streamAuditLogs(params: Pick<AuditLogFilter, 'username' | 'actionType'>, onLog: (log: AuditLog) => void): () => void;
 }
 
 const apiService: ApiService = {
@@ -144,6 +145,67 @@ const apiService: ApiService = {
     });
     return response.data;
   },
+
+  // 浏览器的 EventSource 不能带 Authorization 头，这里用 fetch 读取 SSE 流，断开后带 Last-Event-ID 重连
+  streamAuditLogs: (params, onLog) => {
+    const controller = new AbortController();
+    const query = new URLSearchParams();
+    if (params.username) query.set('username', params.username);
+    if (params.actionType) query.set('actionType', params.actionType);
+    let lastEventId: string | undefined;
+    let retryMs = 3000;
+
+    const connect = async () => {
+      while (!controller.signal.aborted) {
+        try {
+          const headers: Record<string, string> = { Accept: 'text/event-stream' };
+          const token = localStorage.getItem('token');
+          if (token) headers.Authorization = `Bearer ${token}`;
+          if (lastEventId) headers['Last-Event-ID'] = lastEventId;
+          const response = await fetch(`${API_BASE_URL}/audit-logs/stream?${query}`, {
+            headers,
+            signal: controller.signal,
+          });
+          if (response.status === 401) {
+            localStorage.removeItem('token');
+            window.location.href = '/login';
+            return;
+          }
+          if (!response.ok || !response.body) {
+            throw new Error(`HTTP ${response.status}`);
+          }
+          const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+          let buffer = '';
+          for (;;) {
+            const { value, done } = await reader.read();
+            if (done) break;
+            buffer += value.replace(/\r\n?/g, '\n');
+            let end: number;
+            while ((end = buffer.indexOf('\n\n')) >= 0) {
+              const block = buffer.slice(0, end);
+              buffer = buffer.slice(end + 2);
+              let data = '';
+              for (const line of block.split('\n')) {
+                const colon = line.indexOf(':');
+                if (colon === 0) continue;
+                const field = colon < 0 ? line : line.slice(0, colon);
+                const text = colon < 0 ? '' : line.slice(colon + 1).replace(/^ /, '');
+                if (field === 'id') lastEventId = text;
+                else if (field === 'retry') retryMs = Number(text) || retryMs;
+                else if (field === 'data') data += (data ? '\n' : '') + text;
+              }
+              if (data) onLog(JSON.parse(data) as AuditLog);
+            }
+          }
+        } catch (error) {
+          if (controller.signal.aborted) return;
+        }
+        await new Promise((resolve) => setTimeout(resolve, retryMs));
+      }
+    };
+    connect();
+    return () => controller.abort();
+  },
 };
 
 export default apiService; 
\ No newline at end of file
@@ -112,6 +112,15 @@ export interface PaginatedResponse<T> {
   empty: boolean;
 }
 
+// 游标分页响应（请求时传 after 参数，首页传空字符串）
+export interface CursorPage<T> {
+  content: T[];
+  size: number;
+  hasNext: boolean;
+  nextCursor: string | null;
+  empty: boolean;
+}
+
 // Dashboard统计数据
 export interface DashboardStats {
   totalUsers: number;